@@ -0,0 +1,27 @@
+package org.example.core;
+
+import org.example.model.PointVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataGeneratorBenchmark {
+
+    @Param({"100000", "1000000"})
+    int n;
+
+    @Param({"1", "4"})
+    int threads;
+
+    @Benchmark
+    public List<PointVector> generate() {
+        return DataGenerator.generate(n, 42L, 4, 0.15, threads);
+    }
+}
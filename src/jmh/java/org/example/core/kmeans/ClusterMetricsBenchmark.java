@@ -0,0 +1,45 @@
+package org.example.core.kmeans;
+
+import org.example.core.DataGenerator;
+import org.example.model.PointVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClusterMetricsBenchmark {
+
+    @Param({"100000", "1000000"})
+    int n;
+
+    @Param({"4", "16"})
+    int k;
+
+    private List<PointVector> points;
+    private int[] assignment;
+    private double[][] centroids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        points = DataGenerator.generate(n, 42L, 4, 0.15);
+        try (KMeansSession s = new KMeansSession(points, k, 5, 1e-12, 12345L, 1)) {
+            IterationSnapshot last;
+            do {
+                last = s.step();
+            } while (last.stopReason() == null);
+            assignment = last.assignment();
+            centroids = last.centroids();
+        }
+    }
+
+    @Benchmark
+    public ClusterMetricsCalc.ClusterMetricsResult compute() {
+        return ClusterMetricsCalc.compute(points, assignment, centroids);
+    }
+}
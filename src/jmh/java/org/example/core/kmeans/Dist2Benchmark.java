@@ -0,0 +1,37 @@
+package org.example.core.kmeans;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Dist2Benchmark {
+
+    @Param({"15", "64", "256"})
+    int d;
+
+    private double[] a;
+    private double[] b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(7L);
+        a = new double[d];
+        b = new double[d];
+        for (int i = 0; i < d; i++) {
+            a[i] = r.nextDouble() * 500;
+            b[i] = r.nextDouble() * 500;
+        }
+    }
+
+    @Benchmark
+    public double dist2() {
+        return KMeansSession.dist2(a, b);
+    }
+}
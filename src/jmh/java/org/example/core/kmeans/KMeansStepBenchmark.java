@@ -0,0 +1,45 @@
+package org.example.core.kmeans;
+
+import org.example.core.DataGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Одна итерация Ллойда (assign + update + SSE) на сгенерированном датасете.
+// Сид датасета фиксирован -> результаты сравнимы между коммитами.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KMeansStepBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int n;
+
+    @Param({"4", "16"})
+    int k;
+
+    @Param({"1", "4", "8"})
+    int threads;
+
+    private KMeansSession session;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var points = DataGenerator.generate(n, 42L, 4, 0.15);
+        // maxIter без ограничения: после сходимости step() продолжает делать полный проход
+        session = new KMeansSession(points, k, Integer.MAX_VALUE, 1e-12, 12345L, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.close();
+    }
+
+    @Benchmark
+    public IterationSnapshot step() {
+        return session.step();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.db;
+
+import org.example.core.DataGenerator;
+import org.example.model.Feature;
+import org.example.model.PointVector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Кодек BLOB-векторов POINTS: кодирование/декодирование пачки из batch векторов.
+// legacy* — прежний packVec/unpackVecToDim на DataOutputStream/DataInputStream (для сравнения).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VecCodecBenchmark {
+
+    @Param({"1000", "65536"})
+    int batch;
+
+    private double[][] vectors;
+    private byte[][] blobs;
+    private byte[][] compactBlobs;
+    private double[][] dst;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<PointVector> pts = DataGenerator.generate(batch, 42L, 4, 0.15);
+        vectors = new double[batch][];
+        blobs = new byte[batch][];
+        for (int i = 0; i < batch; i++) {
+            vectors[i] = pts.get(i).x();
+            blobs[i] = legacyPack(vectors[i]);
+        }
+        compactBlobs = new byte[batch][];
+        for (int i = 0; i < batch; i++) compactBlobs[i] = VectorCodec.encode(vectors[i], true);
+        dst = new double[batch][Feature.count()];
+    }
+
+    @Benchmark
+    public void legacyPack(Blackhole bh) throws IOException {
+        for (double[] v : vectors) bh.consume(legacyPack(v));
+    }
+
+    @Benchmark
+    public void legacyUnpack(Blackhole bh) throws IOException {
+        int d = Feature.count();
+        for (byte[] b : blobs) bh.consume(legacyUnpack(b, d));
+    }
+
+    @Benchmark
+    public void pack(Blackhole bh) {
+        for (double[] v : vectors) bh.consume(VectorCodec.encode(v, false));
+    }
+
+    @Benchmark
+    public void packCompact(Blackhole bh) {
+        for (double[] v : vectors) bh.consume(VectorCodec.encode(v, true));
+    }
+
+    @Benchmark
+    public void unpack(Blackhole bh) {
+        for (int i = 0; i < batch; i++) VectorCodec.decodeInto(blobs[i], dst[i]);
+        bh.consume(dst);
+    }
+
+    @Benchmark
+    public void unpackCompact(Blackhole bh) {
+        for (int i = 0; i < batch; i++) VectorCodec.decodeInto(compactBlobs[i], dst[i]);
+        bh.consume(dst);
+    }
+
+    private static byte[] legacyPack(double[] x) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(8 + x.length * 8);
+        try (DataOutputStream dos = new DataOutputStream(bos)) {
+            dos.writeInt(x.length);
+            for (double v : x) dos.writeDouble(v);
+        }
+        return bos.toByteArray();
+    }
+
+    private static double[] legacyUnpack(byte[] blob, int targetDim) throws IOException {
+        double[] raw;
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(blob))) {
+            int len = dis.readInt();
+            raw = new double[Math.max(0, len)];
+            for (int i = 0; i < raw.length; i++) raw[i] = dis.readDouble();
+        }
+        double[] x = new double[targetDim];
+        System.arraycopy(raw, 0, x, 0, Math.min(raw.length, x.length));
+        return x;
+    }
+}
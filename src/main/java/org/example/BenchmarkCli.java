@@ -0,0 +1,321 @@
+package org.example;
+
+import org.example.core.DataGenerator;
+import org.example.core.kmeans.ClusterMetricsCalc;
+import org.example.core.kmeans.IterationSnapshot;
+import org.example.core.kmeans.KMeansSession;
+import org.example.db.CoresetRepository;
+import org.example.db.Database;
+import org.example.db.DatasetRepository;
+import org.example.db.MetricsRepository;
+import org.example.db.ProjectionRepository;
+import org.example.db.ResultRepository;
+import org.example.db.RunRepository;
+import org.example.db.ThreadTuningRepository;
+import org.example.metrics.MetricsHttpServer;
+import org.example.metrics.SessionMetrics;
+import org.example.model.PointVector;
+import org.example.model.ReductionMode;
+import org.example.model.RunMode;
+import org.example.model.ScalingMode;
+import org.example.model.WorkloadPreset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Headless-прогоны RunMode.BENCHMARK без JavaFX (для серверов).
+//
+//   java -cp rosl.jar org.example.BenchmarkCli --dataset 7 --k 4,8 --threads 1,2,4,8 --reps 3
+//   java -cp rosl.jar org.example.BenchmarkCli --n 1000000 --seed 42 --sigma 0.15 --engines PLAIN,DEDUP
+//   java -cp rosl.jar org.example.BenchmarkCli --n 2000000 --preset HIGH_DIM --d 64 --k 16
+//   java -cp rosl.jar org.example.BenchmarkCli --import users.csv --k 8
+//
+// Каждый прогон пишется в RUNS (mode=BENCHMARK, engine=...) и RUN_METRICS,
+// сводка — CSV в ~/.local/share/rosl/bench (или --out).
+public final class BenchmarkCli {
+
+    // INCREMENTAL — старт с результата последнего прогона с тем же K и scaling (см. SessionFactory)
+    public enum Engine { PLAIN, DEDUP, CORESET, RANDOM_PROJ, PCA, INCREMENTAL }
+
+    record Config(
+            long datasetId,
+            Path importFile,
+            int n, long seed, double sigma, int trueClusters,
+            WorkloadPreset preset, int d,
+            List<Integer> ks,
+            List<Integer> threads,
+            List<Engine> engines,
+            int reps,
+            int maxIter,
+            double eps,
+            ScalingMode scaling,
+            int coresetSize,
+            int reducedDim,
+            Path out
+    ) {}
+
+    public record Result(
+            long runId, long datasetId, Engine engine, int k, int threads, int rep,
+            int n, double prepMs, long totalMs, int iterations, double finalSse,
+            double avgIterMs, double avgAssignMs, double avgUpdateMs, String stopReason
+    ) {}
+
+    private final DatasetRepository datasetRepo = new DatasetRepository();
+    private final RunRepository runRepo = new RunRepository();
+    private final MetricsRepository metricsRepo = new MetricsRepository();
+    private final ResultRepository resultRepo = new ResultRepository();
+    private final SessionFactory sessionFactory =
+            new SessionFactory(new CoresetRepository(), new ProjectionRepository(), new ThreadTuningRepository(),
+                    runRepo, resultRepo);
+
+    public static void main(String[] args) {
+        Config cfg;
+        try {
+            cfg = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(usage());
+            System.exit(2);
+            return;
+        }
+
+        Database.init();
+        MetricsHttpServer.startIfEnabled();
+        try {
+            new BenchmarkCli().run(cfg);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            MetricsHttpServer.stop();
+            Database.shutdown();
+        }
+    }
+
+    void run(Config cfg) throws IOException {
+        long datasetId = cfg.datasetId();
+        if (datasetId < 0 && cfg.importFile() != null) {
+            System.out.println("Importing " + cfg.importFile() + " ...");
+            CsvImporter.Result r = new CsvImporter(datasetRepo, Runtime.getRuntime().availableProcessors())
+                    .importFile(cfg.importFile(), cfg.importFile().getFileName().toString(), CsvImporter.Progress.NONE);
+            datasetId = r.datasetId();
+            if (r.reused()) System.out.println("File already imported: id=" + datasetId);
+            else System.out.printf(Locale.ROOT, "Dataset imported: id=%d, %d rows, %.1f MB in %.0f ms%n",
+                    datasetId, r.rows(), r.bytes() / 1048576.0, r.ms());
+        } else if (datasetId < 0) {
+            DataGenerator.Spec spec = DataGenerator.Spec.of(cfg.preset(), cfg.d(), cfg.trueClusters(), cfg.sigma());
+            System.out.printf("Generating %s N=%d d=%d clusters=%d seed=%d sigma=%s ...%n", spec.preset(),
+                    cfg.n(), spec.d(), spec.clusters(), cfg.seed(), cfg.sigma());
+            String name = spec.preset() == WorkloadPreset.SOCIAL
+                    ? "bench_N" + cfg.n() + "_seed" + cfg.seed()
+                    : "bench_" + spec.preset().name().toLowerCase(Locale.ROOT) + "_N" + cfg.n() + "_d" + spec.d()
+                            + "_seed" + cfg.seed();
+            DatasetGenerationPipeline.Result gen = DatasetGenerationPipeline.generate(datasetRepo, name, cfg.n(),
+                    cfg.seed(), spec, Runtime.getRuntime().availableProcessors(), DatasetGenerationPipeline.Progress.NONE);
+            datasetId = gen.datasetId();
+            System.out.println((gen.reused() ? "Dataset reused: id=" : "Dataset created: id=") + datasetId);
+        }
+
+        List<PointVector> points = datasetRepo.loadPoints(datasetId, cfg.scaling());
+        if (points.isEmpty()) throw new IllegalStateException("Dataset " + datasetId + " has no points");
+
+        System.out.printf("Dataset id=%d: %d points, d=%d, scaling=%s%n",
+                datasetId, points.size(), points.get(0).x().length, cfg.scaling());
+
+        List<Result> results = new ArrayList<>();
+        for (Engine engine : cfg.engines()) {
+            for (int k : cfg.ks()) {
+                for (int t : cfg.threads()) {
+                    for (int rep = 1; rep <= cfg.reps(); rep++) {
+                        Result r = runOne(cfg, datasetId, points, engine, k, t, rep);
+                        results.add(r);
+                        System.out.printf(Locale.ROOT,
+                                "%-11s k=%-3d threads=%-3d rep=%d  run=%d  iters=%d  total=%dms  avgIter=%.2fms  sse=%.4f  (%s)%n",
+                                engine, k, r.threads(), rep, r.runId(), r.iterations(), r.totalMs(), r.avgIterMs(),
+                                r.finalSse(), r.stopReason());
+                    }
+                }
+            }
+        }
+
+        Path out = cfg.out() != null ? cfg.out() : defaultOut();
+        writeSummary(out, results);
+        System.out.println("Summary: " + out.toAbsolutePath());
+    }
+
+    Result runOne(Config cfg, long datasetId, List<PointVector> points,
+                  Engine engine, int k, int threads, int rep) {
+        var o = new SessionFactory.Options(
+                k, cfg.maxIter(), cfg.eps(), threads,
+                engine == Engine.CORESET ? cfg.coresetSize() : 0,
+                engine == Engine.DEDUP,
+                engine == Engine.PCA ? ReductionMode.PCA
+                        : engine == Engine.RANDOM_PROJ ? ReductionMode.RANDOM : ReductionMode.NONE,
+                cfg.reducedDim(),
+                engine == Engine.INCREMENTAL
+        );
+
+        long runId = runRepo.createRun(datasetId, RunMode.BENCHMARK, engine.name(), cfg.scaling(),
+                k, threads, cfg.maxIter(), cfg.eps());
+
+        try {
+            long start = System.nanoTime();
+            SessionFactory.Prepared prep = sessionFactory.prepare(o, datasetId, cfg.scaling(), points, msg -> {});
+            double prepMs = (System.nanoTime() - start) / 1_000_000.0;
+            if (!prep.engine().equals(engine.name())) runRepo.updateEngine(runId, prep.engine());
+
+            double sumIter = 0, sumAssign = 0, sumUpdate = 0;
+            int iters = 0;
+            IterationSnapshot last;
+            SessionMetrics.Summary hot;
+            int used;
+            try (KMeansSession session = prep.session()) {
+                do {
+                    last = session.step();
+                    iters++;
+                    sumIter += last.totalMs();
+                    sumAssign += last.assignMs();
+                    sumUpdate += last.updateMs();
+                } while (last.stopReason() == null);
+                hot = session.metrics().summary();
+                used = session.getThreads();
+                last = prep.expandToFullData(last, points, used);
+            }
+            long totalMs = Math.round((System.nanoTime() - start) / 1_000_000.0);
+
+            // SSE по всем точкам датасета, чтобы движки были сравнимы (вне замера времени)
+            var cm = ClusterMetricsCalc.compute(points, last.assignment(), last.centroids());
+            double sse = 0.0;
+            for (double v : cm.clusterSse()) sse += v;
+
+            double avgIter = sumIter / iters;
+            double avgAssign = sumAssign / iters;
+            double avgUpdate = sumUpdate / iters;
+
+            metricsRepo.insertRunMetrics(runId, totalMs, last.iter(), sse, avgIter, avgAssign, avgUpdate);
+            metricsRepo.saveRunSummary(runId, hot);
+            resultRepo.saveResult(runId, last.centroids(), last.assignment());
+            if (threads == SessionFactory.AUTO_THREADS) runRepo.updateThreads(runId, used);
+            runRepo.finishRun(runId, last.stopReason());
+
+            return new Result(runId, datasetId, engine, k, used, rep, points.size(), prepMs, totalMs,
+                    last.iter(), sse, avgIter, avgAssign, avgUpdate, last.stopReason());
+        } catch (RuntimeException | Error e) {
+            runRepo.finishRun(runId, "FAILED", e.toString());
+            throw e;
+        }
+    }
+
+    static void writeSummary(Path out, List<Result> results) throws IOException {
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            w.write(String.join(",",
+                    "run_id", "dataset_id", "engine", "k", "threads", "rep", "n",
+                    "prep_ms", "total_ms", "iterations", "final_sse",
+                    "avg_iter_ms", "avg_assign_ms", "avg_update_ms", "stop_reason"));
+            w.newLine();
+            for (Result r : results) {
+                w.write(String.format(Locale.ROOT, "%d,%d,%s,%d,%d,%d,%d,%.3f,%d,%d,%.6f,%.4f,%.4f,%.4f,%s",
+                        r.runId(), r.datasetId(), r.engine(), r.k(), r.threads(), r.rep(), r.n(),
+                        r.prepMs(), r.totalMs(), r.iterations(), r.finalSse(),
+                        r.avgIterMs(), r.avgAssignMs(), r.avgUpdateMs(), r.stopReason()));
+                w.newLine();
+            }
+        }
+    }
+
+    private static Path defaultOut() {
+        String home = System.getProperty("user.home");
+        String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        return Paths.get(home, ".local", "share", "rosl", "bench", "bench_" + ts + ".csv");
+    }
+
+    // ---- args ----
+
+    static Config parse(String[] args) {
+        Map<String, String> m = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (!a.startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + a);
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+            m.put(a.substring(2), args[++i]);
+        }
+
+        long datasetId = m.containsKey("dataset") ? Long.parseLong(m.get("dataset")) : -1;
+        Path importFile = m.containsKey("import") ? Paths.get(m.get("import")) : null;
+        int n = Integer.parseInt(m.getOrDefault("n", "0"));
+        if (datasetId < 0 && importFile == null && n <= 0) {
+            throw new IllegalArgumentException("One of --dataset, --import or --n is required");
+        }
+
+        List<Engine> engines = new ArrayList<>();
+        for (String e : m.getOrDefault("engines", "PLAIN").split(",")) {
+            engines.add(Engine.valueOf(e.trim().toUpperCase(Locale.ROOT)));
+        }
+
+        Config cfg = new Config(
+                datasetId,
+                importFile,
+                n,
+                Long.parseLong(m.getOrDefault("seed", "42")),
+                Double.parseDouble(m.getOrDefault("sigma", "0.15")),
+                Integer.parseInt(m.getOrDefault("clusters", "0")), // 0 => по пресету
+                WorkloadPreset.valueOf(m.getOrDefault("preset", "SOCIAL").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(m.getOrDefault("d", "0")),             // 0 => по пресету
+                intList(m.getOrDefault("k", "4")),
+                threadList(m.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                engines,
+                Integer.parseInt(m.getOrDefault("reps", "1")),
+                Integer.parseInt(m.getOrDefault("max-iter", "30")),
+                Double.parseDouble(m.getOrDefault("eps", "0.001")),
+                ScalingMode.valueOf(m.getOrDefault("scaling", "NONE").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(m.getOrDefault("coreset", "5000")),
+                Integer.parseInt(m.getOrDefault("reduced-dim", "4")),
+                m.containsKey("out") ? Paths.get(m.get("out")) : null
+        );
+
+        for (int k : cfg.ks()) if (k <= 1) throw new IllegalArgumentException("K must be >= 2");
+        for (int t : cfg.threads()) if (t < 0) throw new IllegalArgumentException("Threads must be > 0 or auto");
+        if (cfg.reps() <= 0) throw new IllegalArgumentException("reps must be > 0");
+        if (cfg.maxIter() <= 0) throw new IllegalArgumentException("max-iter must be > 0");
+        if (cfg.eps() <= 0) throw new IllegalArgumentException("eps must be > 0");
+        return cfg;
+    }
+
+    private static List<Integer> intList(String s) {
+        List<Integer> out = new ArrayList<>();
+        for (String p : s.split(",")) {
+            if (!p.isBlank()) out.add(Integer.parseInt(p.trim()));
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("empty list: " + s);
+        return out;
+    }
+
+    // "auto" => SessionFactory.AUTO_THREADS
+    private static List<Integer> threadList(String s) {
+        return intList(s.toLowerCase(Locale.ROOT).replace("auto", String.valueOf(SessionFactory.AUTO_THREADS)));
+    }
+
+    private static String usage() {
+        return """
+                Usage: BenchmarkCli (--dataset ID | --import file.csv
+                                     | --n N [--seed S] [--sigma X] [--preset SOCIAL|BLOBS|...] [--d D] [--clusters C])
+                                    [--k 4,8] [--threads 1,2,4,auto] [--engines PLAIN,DEDUP,CORESET,RANDOM_PROJ,PCA,INCREMENTAL]
+                                    [--reps R] [--max-iter 30] [--eps 0.001] [--scaling NONE|ZSCORE|MINMAX|LOG1P]
+                                    [--coreset 5000] [--reduced-dim 4] [--out summary.csv]
+                """;
+    }
+
+    private BenchmarkCli() {}
+}
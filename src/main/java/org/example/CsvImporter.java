@@ -0,0 +1,295 @@
+package org.example;
+
+import org.example.core.ParallelChunks;
+import org.example.db.DatasetRepository;
+import org.example.db.DatasetWriter;
+import org.example.model.Feature;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+// Импорт CSV/TSV-выгрузок (likes/comments/posts по пользователям) в датасет.
+//
+// Файл читается окнами по WINDOW_BYTES через FileChannel.map; окно обрезается по последнему '\n'
+// и делится между потоками по границам строк. Каждый поток разбирает свои строки в плоский double[],
+// затем строки в исходном порядке уходят в DatasetWriter (idx = номер строки данных).
+// В памяти — одно окно и один чанк точек, весь файл объектами не держим.
+//
+// Заголовок обязателен; колонки сопоставляются с Feature.column (регистр и кавычки не важны),
+// лишние колонки пропускаются. Разделитель — '\t', если он есть в заголовке, иначе ','.
+// Пустое значение = 0. Кавычки в полях поддерживаются, перевод строки внутри кавычек — нет.
+// Повторный импорт того же содержимого (sha-256 файла) возвращает уже существующий датасет.
+public final class CsvImporter {
+
+    static final int WINDOW_BYTES = 32 << 20;
+    private static final int MAX_HEADER_BYTES = 1 << 20;
+
+    // reused — файл с таким содержимым уже импортирован, rows = 0
+    public record Result(long datasetId, int rows, long bytes, double ms, boolean reused) {}
+
+    @FunctionalInterface
+    public interface Progress {
+        void update(long bytesDone, long bytesTotal, int rows);
+
+        Progress NONE = (done, total, rows) -> {};
+    }
+
+    private final DatasetRepository repo;
+    private final int threads;
+
+    public CsvImporter(DatasetRepository repo, int threads) {
+        this.repo = repo;
+        this.threads = Math.max(1, threads);
+    }
+
+    public Result importFile(Path file, String name, Progress progress) throws IOException {
+        long t0 = System.nanoTime();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+
+            String hash = contentHash(ch, size);
+            long existing = repo.findByContentHash(hash);
+            if (existing >= 0) {
+                progress.update(size, size, 0);
+                return new Result(existing, 0, size, (System.nanoTime() - t0) / 1_000_000.0, true);
+            }
+
+            MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_HEADER_BYTES));
+            int headerEnd = lineEnd(head, 0, head.limit());
+            if (headerEnd == head.limit() && headerEnd < size) {
+                throw new IllegalArgumentException("Header line longer than " + MAX_HEADER_BYTES + " bytes");
+            }
+            byte sep = indexOf(head, 0, headerEnd, (byte) '\t') >= 0 ? (byte) '\t' : (byte) ',';
+            int[] featureOf = mapHeader(head, headerEnd, sep);
+
+            int d = Feature.count();
+            long pos = Math.min(size, headerEnd + 1L);
+
+            try (DatasetWriter w = repo.openWriter(name, 0L, 0.0, d, hash)) {
+                while (pos < size) {
+                    int len = (int) Math.min(WINDOW_BYTES, size - pos);
+                    MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+
+                    // окно заканчивается на целой строке (кроме последнего)
+                    int end = len;
+                    if (pos + len < size) {
+                        end = lastIndexOf(buf, len, (byte) '\n') + 1;
+                        if (end == 0) {
+                            throw new IllegalArgumentException("Line at byte " + pos + " longer than "
+                                    + WINDOW_BYTES + " bytes");
+                        }
+                    }
+
+                    final long base = pos;
+                    final int windowEnd = end;
+                    List<Rows> parts = ParallelChunks.map(windowEnd, threads, "csv-import",
+                            (start, stop) -> parseRange(buf.duplicate(), base, start, stop, windowEnd,
+                                    sep, featureOf, d));
+
+                    for (Rows r : parts) {
+                        for (int i = 0; i < r.count; i++) {
+                            w.add(Arrays.copyOfRange(r.values, i * d, (i + 1) * d));
+                        }
+                    }
+
+                    pos += windowEnd;
+                    progress.update(pos, size, w.size());
+                }
+
+                int rows = w.size();
+                long id = w.finish();
+                return new Result(id, rows, size, (System.nanoTime() - t0) / 1_000_000.0, false);
+            }
+        }
+    }
+
+    private static String contentHash(FileChannel ch, long size) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (long pos = 0; pos < size; pos += WINDOW_BYTES) {
+            md.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW_BYTES, size - pos)));
+        }
+        return "file:" + HexFormat.of().formatHex(md.digest());
+    }
+
+    // Строки, разобранные одним потоком: count строк по d значений подряд
+    private static final class Rows {
+        double[] values;
+        int count;
+
+        Rows(int capacity) { values = new double[capacity]; }
+
+        double[] next(int d) {
+            int need = (count + 1) * d;
+            if (need > values.length) values = Arrays.copyOf(values, Math.max(need, values.length * 2));
+            return values;
+        }
+    }
+
+    // Строки, НАЧИНАЮЩИЕСЯ в [start, stop): строку на границе разбирает поток, в чьём диапазоне её начало
+    private static Rows parseRange(MappedByteBuffer buf, long base, int start, int stop, int limit,
+                                   byte sep, int[] featureOf, int d) {
+        int p = start;
+        if (p > 0 && buf.get(p - 1) != '\n') p = lineEnd(buf, p, limit) + 1;
+
+        Rows rows = new Rows(Math.max(d, (stop - start) / 8));
+        while (p < stop && p < limit) {
+            int e = lineEnd(buf, p, limit);
+            int lineStop = (e > p && buf.get(e - 1) == '\r') ? e - 1 : e;
+            if (lineStop > p) {
+                double[] v = rows.next(d);
+                int off = rows.count * d;
+                Arrays.fill(v, off, off + d, 0.0);
+                parseLine(buf, base, p, lineStop, sep, featureOf, v, off);
+                rows.count++;
+            }
+            p = e + 1;
+        }
+        return rows;
+    }
+
+    private static void parseLine(MappedByteBuffer buf, long base, int from, int to, byte sep,
+                                  int[] featureOf, double[] out, int off) {
+        int col = 0;
+        int p = from;
+        while (p <= to) {
+            int fs = p;
+            if (p < to && buf.get(p) == '"') {
+                // поле в кавычках: разделитель внутри не считается, "" — экранированная кавычка
+                p++;
+                while (p < to) {
+                    if (buf.get(p) == '"') {
+                        if (p + 1 < to && buf.get(p + 1) == '"') p += 2;
+                        else break;
+                    } else {
+                        p++;
+                    }
+                }
+            }
+            int fe = indexOf(buf, p, to, sep);
+            if (fe < 0) fe = to;
+
+            if (col < featureOf.length && featureOf[col] >= 0) {
+                out[off + featureOf[col]] = parseNumber(buf, base, fs, fe);
+            }
+            col++;
+            p = fe + 1;
+        }
+    }
+
+    // Быстрый путь — [-]digits[.digits] до 15 цифр (mant и 10^scale точны в double, деление округляется верно);
+    // остальное (экспонента, длинные числа) через Double.parseDouble
+    static double parseNumber(MappedByteBuffer buf, long base, int from, int to) {
+        while (from < to && (buf.get(from) == ' ' || buf.get(from) == '"')) from++;
+        while (to > from && (buf.get(to - 1) == ' ' || buf.get(to - 1) == '"')) to--;
+        if (from == to) return 0.0;
+
+        int p = from;
+        boolean neg = false;
+        if (buf.get(p) == '-' || buf.get(p) == '+') {
+            neg = buf.get(p) == '-';
+            p++;
+        }
+        long mant = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; p < to; p++) {
+            byte b = buf.get(p);
+            if (b >= '0' && b <= '9') {
+                if (digits >= 15) return slowParse(buf, base, from, to);
+                mant = mant * 10 + (b - '0');
+                digits++;
+                if (dot) scale++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowParse(buf, base, from, to);
+            }
+        }
+        if (digits == 0) return slowParse(buf, base, from, to);
+
+        double v = scale == 0 ? mant : mant / POW10[scale];
+        return neg ? -v : v;
+    }
+
+    private static final double[] POW10 = new double[16];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private static double slowParse(MappedByteBuffer buf, long base, int from, int to) {
+        String s = text(buf, from, to);
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number at byte " + (base + from) + ": '" + s + "'");
+        }
+    }
+
+    // Колонка файла -> индекс признака (-1 — не признак)
+    private static int[] mapHeader(MappedByteBuffer head, int headerEnd, byte sep) {
+        int to = (headerEnd > 0 && head.get(headerEnd - 1) == '\r') ? headerEnd - 1 : headerEnd;
+        List<String> names = new ArrayList<>();
+        int p = 0;
+        while (p <= to) {
+            int e = indexOf(head, p, to, sep);
+            if (e < 0) e = to;
+            names.add(text(head, p, e).replace("\"", "").trim().toLowerCase(Locale.ROOT));
+            p = e + 1;
+        }
+        // BOM от Excel
+        if (!names.isEmpty() && names.get(0).startsWith("\uFEFF")) names.set(0, names.get(0).substring(1));
+
+        int[] featureOf = new int[names.size()];
+        Arrays.fill(featureOf, -1);
+        List<String> missing = new ArrayList<>();
+        for (Feature f : Feature.values()) {
+            int col = names.indexOf(f.column);
+            if (col < 0) missing.add(f.column);
+            else featureOf[col] = f.ordinal();
+        }
+        if (!missing.isEmpty()) throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+        return featureOf;
+    }
+
+    private static String text(MappedByteBuffer buf, int from, int to) {
+        byte[] b = new byte[to - from];
+        buf.get(from, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // позиция '\n' или limit
+    private static int lineEnd(MappedByteBuffer buf, int from, int limit) {
+        int i = indexOf(buf, from, limit, (byte) '\n');
+        return i < 0 ? limit : i;
+    }
+
+    private static int indexOf(MappedByteBuffer buf, int from, int to, byte b) {
+        for (int i = from; i < to; i++) if (buf.get(i) == b) return i;
+        return -1;
+    }
+
+    private static int lastIndexOf(MappedByteBuffer buf, int to, byte b) {
+        for (int i = to - 1; i >= 0; i--) if (buf.get(i) == b) return i;
+        return -1;
+    }
+}
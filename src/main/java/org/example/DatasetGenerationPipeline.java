@@ -0,0 +1,81 @@
+package org.example;
+
+import org.example.core.DataGenerator;
+import org.example.db.DatasetRepository;
+import org.example.db.DatasetWriter;
+import org.example.model.PointVector;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Генерация сразу в БД: чанки DataGenerator.Model считаются на пуле и через ограниченную очередь
+// (не больше QUEUE_PER_THREAD * threads чанков в полёте) попадают в DatasetWriter по порядку,
+// запись каждого чанка — отдельный коммит. Пока пишется чанк c, генерируются следующие;
+// память — O(очередь * CHUNK) независимо от N.
+// Перед генерацией ищется датасет с тем же хэшем параметров — если есть, он и возвращается.
+public final class DatasetGenerationPipeline {
+    private DatasetGenerationPipeline() {}
+
+    private static final int QUEUE_PER_THREAD = 2;
+
+    @FunctionalInterface
+    public interface Progress {
+        void update(int written, int total);
+
+        Progress NONE = (written, total) -> {};
+    }
+
+    public record Result(long datasetId, boolean reused) {}
+
+    public static Result generate(DatasetRepository repo, String name, int n, long seed, DataGenerator.Spec spec,
+                                  int threads, Progress progress) {
+        String hash = spec.contentHash(n, seed);
+        long existing = repo.findByContentHash(hash);
+        if (existing >= 0) {
+            progress.update(n, n);
+            return new Result(existing, true);
+        }
+
+        DataGenerator.Model model = DataGenerator.model(n, seed, spec);
+        int chunks = model.chunks();
+        int t = Math.max(1, threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(t, r -> {
+            Thread th = new Thread(r, "data-gen");
+            th.setDaemon(true);
+            return th;
+        });
+        ArrayDeque<Future<List<PointVector>>> queue = new ArrayDeque<>();
+
+        try (DatasetWriter w = repo.openWriter(name, seed, spec.sigma(), model.dim(), hash)) {
+            int next = 0;
+            while (next < chunks && queue.size() < QUEUE_PER_THREAD * t) {
+                final int c = next++;
+                queue.add(pool.submit(() -> model.chunk(c)));
+            }
+
+            while (!queue.isEmpty()) {
+                List<PointVector> chunk = queue.poll().get();
+                if (next < chunks) {
+                    final int c = next++;
+                    queue.add(pool.submit(() -> model.chunk(c)));
+                }
+                w.addAll(chunk);
+                progress.update(w.size(), n);
+            }
+            return new Result(w.finish(), false);
+
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Generation interrupted", ie);
+        } catch (ExecutionException ee) {
+            throw new RuntimeException("Generation failed", ee.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
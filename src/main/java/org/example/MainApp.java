@@ -11,27 +11,42 @@ import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.example.core.DataGenerator;
+import org.example.core.Projection;
 import org.example.core.kmeans.ClusterMetricsCalc;
 import org.example.core.kmeans.IterationSnapshot;
 import org.example.core.kmeans.KMeansSession;
+import org.example.core.kmeans.PointDeduplicator;
+import org.example.db.CoresetRepository;
 import org.example.db.Database;
+import org.example.db.IterMetricsWriter;
+import org.example.db.DatasetPurger;
 import org.example.db.DatasetRepository;
 import org.example.db.MetricsRepository;
+import org.example.db.ProjectionRepository;
 import org.example.db.ResultRepository;
 import org.example.db.RunRepository;
+import org.example.db.ThreadTuningRepository;
+import org.example.metrics.MetricsHttpServer;
+import org.example.metrics.SessionMetrics;
 import org.example.model.DatasetInfo;
 import org.example.model.Feature;
 import org.example.model.PointVector;
+import org.example.model.ReductionMode;
 import org.example.model.RunMode;
+import org.example.model.ScalingMode;
+import org.example.model.WorkloadPreset;
 import org.example.ui.PlotCanvas;
 import org.example.ui.ResultsWindow;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MainApp extends Application {
 
@@ -42,8 +57,13 @@ public class MainApp extends Application {
     private final RunRepository runRepo = new RunRepository();
     private final ResultRepository resultRepo = new ResultRepository();
     private final MetricsRepository metricsRepo = new MetricsRepository();
+    private final IterMetricsWriter iterWriter = new IterMetricsWriter(metricsRepo);
+    private final SessionFactory sessionFactory =
+            new SessionFactory(new CoresetRepository(), new ProjectionRepository(), new ThreadTuningRepository(),
+                    runRepo, resultRepo);
 
     private volatile KMeansSession session = null;
+    private volatile SessionFactory.Prepared sessionPrep = null; // как session собрана (coreset / dedup)
     private volatile long currentDatasetId = -1;
     private volatile long currentRunId = -1; // no Long/null
 
@@ -61,6 +81,8 @@ public class MainApp extends Application {
     private Stage primaryStage;
     private volatile RunParams lastRunParams = null;
 
+    private final StartupTrace startup = new StartupTrace();
+
     // background worker
     private final ExecutorService bg = Executors.newSingleThreadExecutor(r -> {
         Thread t = new Thread(r, "bg-worker");
@@ -71,14 +93,35 @@ public class MainApp extends Application {
     private final ListView<DatasetInfo> datasetList = new ListView<>();
     private final Label status = new Label("Ready");
     private volatile List<PointVector> currentPoints = List.of();
+    private volatile ScalingMode currentScaling = ScalingMode.NONE;
+
+    private record RunParams(RunMode mode, int k, int maxIter, double eps, int threads,
+                             int coresetSize, boolean dedup,
+                             ReductionMode reduction, int reducedDim, boolean incremental) {
+        SessionFactory.Options options() {
+            return new SessionFactory.Options(k, maxIter, eps, threads, coresetSize, dedup, reduction, reducedDim,
+                    incremental);
+        }
+
+        // имена как в BenchmarkCli.Engine (по приоритету SessionFactory.prepare) — запрошенный движок;
+        // после сборки сессии в RUNS.ENGINE пишется фактический (Prepared.engine), см. ensureSession
+        String engine() {
+            if (incremental) return "INCREMENTAL";
+            if (coresetSize > 0) return "CORESET";
+            if (reduction == ReductionMode.PCA) return "PCA";
+            if (reduction == ReductionMode.RANDOM) return "RANDOM_PROJ";
+            return dedup ? "DEDUP" : "PLAIN";
+        }
+    }
 
-    private record RunParams(RunMode mode, int k, int maxIter, double eps, int threads) {}
+    private record LoadedDataset(List<PointVector> points, ScalingMode scaling) {}
 
     @Override
     public void start(Stage stage) {
         this.primaryStage = stage;
 
-        Database.init();
+        // база открывается в bg (см. initial load) — окно показывается, не дожидаясь миграций
+        MetricsHttpServer.startIfEnabled();
 
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(10));
@@ -94,20 +137,68 @@ public class MainApp extends Application {
         TextField seedField = new TextField("42");
         TextField sigmaField = new TextField("0.15");
 
+        ComboBox<WorkloadPreset> presetBox = new ComboBox<>();
+        presetBox.getItems().setAll(WorkloadPreset.values());
+        presetBox.setValue(WorkloadPreset.SOCIAL);
+
+        TextField dField = new TextField(String.valueOf(WorkloadPreset.SOCIAL.d));
+        dField.setDisable(true);
+        TextField clustersField = new TextField(String.valueOf(WorkloadPreset.SOCIAL.clusters));
+
+        presetBox.valueProperty().addListener((obs, old, p) -> {
+            dField.setText(String.valueOf(p.d));
+            dField.setDisable(p.fixedDim());
+            clustersField.setText(String.valueOf(p.clusters));
+        });
+
+        ComboBox<ScalingMode> scalingBox = new ComboBox<>();
+        scalingBox.getItems().setAll(ScalingMode.values());
+        scalingBox.setValue(ScalingMode.NONE);
+
         GridPane form = new GridPane();
         form.setHgap(8);
         form.setVgap(8);
         form.addRow(0, new Label("N (points):"), nField);
         form.addRow(1, new Label("Seed:"), seedField);
         form.addRow(2, new Label("Noise sigma:"), sigmaField);
+        form.addRow(3, new Label("Preset:"), presetBox);
+        form.addRow(4, new Label("D / clusters:"), new HBox(6, dField, clustersField));
+        form.addRow(5, new Label("Scaling:"), scalingBox);
 
         Button genBtn = new Button("Generate dataset");
         genBtn.setMaxWidth(Double.MAX_VALUE);
 
+        Button importBtn = new Button("Import CSV/TSV...");
+        importBtn.setMaxWidth(Double.MAX_VALUE);
+
+        // дописать N точек генератора (параметры формы) в выбранный датасет
+        Button appendBtn = new Button("Append N generated points");
+        appendBtn.setMaxWidth(Double.MAX_VALUE);
+        appendBtn.setDisable(true);
+
         Button delBtn = new Button("Delete selected");
         delBtn.setMaxWidth(Double.MAX_VALUE);
         delBtn.setDisable(true);
 
+        // ход фоновой очистки удалённых датасетов; скрыт, пока очищать нечего
+        Label purgeLabel = new Label();
+        purgeLabel.setWrapText(true);
+        purgeLabel.setVisible(false);
+        purgeLabel.managedProperty().bind(purgeLabel.visibleProperty());
+        AtomicLong lastPurgeUi = new AtomicLong(0);
+        DatasetPurger.shared().addListener(p -> {
+            long now = System.nanoTime();
+            if (!p.done() && p.deletedRows() > 0 && now - lastPurgeUi.get() < UI_THROTTLE_NS) return;
+            lastPurgeUi.set(now);
+            String text = p.done() ? "" : String.format("Cleaning up dataset #%d: %,d / %,d rows%s",
+                    p.datasetId(), p.deletedRows(), p.totalRows(),
+                    p.pendingDatasets() > 1 ? " (+" + (p.pendingDatasets() - 1) + " queued)" : "");
+            Platform.runLater(() -> {
+                purgeLabel.setText(text);
+                purgeLabel.setVisible(!text.isEmpty());
+            });
+        });
+
         datasetList.setCellFactory(lv -> new ListCell<>() {
             @Override
             protected void updateItem(DatasetInfo item, boolean empty) {
@@ -123,28 +214,30 @@ public class MainApp extends Application {
             }
         });
 
-        left.getChildren().addAll(leftTitle, form, genBtn, delBtn, new Separator(), datasetList);
+        left.getChildren().addAll(leftTitle, form, genBtn, importBtn, appendBtn, delBtn, purgeLabel,
+                new Separator(), datasetList);
         VBox.setVgrow(datasetList, Priority.ALWAYS);
 
         // ---------- CENTER ----------
         PlotCanvas plot = new PlotCanvas(700, 650);
 
-        ComboBox<Feature> xAxis = new ComboBox<>();
-        xAxis.getItems().setAll(Feature.values());
-        xAxis.setValue(Feature.LIKES_SPORTS);
+        // оси — индексы признаков текущего датасета (список пересобирается под его D)
+        ComboBox<Integer> xAxis = new ComboBox<>();
+        ComboBox<Integer> yAxis = new ComboBox<>();
+        setAxisChoices(xAxis, yAxis, Feature.count());
 
-        ComboBox<Feature> yAxis = new ComboBox<>();
-        yAxis.getItems().setAll(Feature.values());
-        yAxis.setValue(Feature.LIKES_GAMES);
-
-        javafx.util.StringConverter<Feature> conv = new javafx.util.StringConverter<>() {
-            @Override public String toString(Feature f) { return (f == null) ? "" : f.column; }
-            @Override public Feature fromString(String s) { return null; }
+        javafx.util.StringConverter<Integer> conv = new javafx.util.StringConverter<>() {
+            @Override public String toString(Integer i) {
+                return (i == null) ? "" : PlotCanvas.axisName(i, xAxis.getItems().size());
+            }
+            @Override public Integer fromString(String s) { return null; }
         };
         xAxis.setConverter(conv);
         yAxis.setConverter(conv);
 
-        HBox axisBar = new HBox(10, new Label("X:"), xAxis, new Label("Y:"), yAxis);
+        CheckBox pcaAxesBox = new CheckBox("PCA axes");
+
+        HBox axisBar = new HBox(10, new Label("X:"), xAxis, new Label("Y:"), yAxis, pcaAxesBox);
         axisBar.setPadding(new Insets(8));
         axisBar.setStyle("-fx-background-color: #f4f4f4; -fx-border-color: #ddd;");
 
@@ -168,16 +261,29 @@ public class MainApp extends Application {
         TextField maxIterField = new TextField("30");
         TextField epsField = new TextField("0.001");
         TextField threadsField = new TextField("4");
+        threadsField.setPromptText("number or auto");
+        TextField coresetField = new TextField("0");
+        coresetField.setPromptText("0 = off");
+        CheckBox dedupBox = new CheckBox("Dedup identical points");
+        dedupBox.setSelected(true);
+
+        ComboBox<ReductionMode> reductionBox = new ComboBox<>();
+        reductionBox.getItems().setAll(ReductionMode.values());
+        reductionBox.setValue(ReductionMode.NONE);
+        TextField reducedDimField = new TextField("4");
+        CheckBox incrementalBox = new CheckBox("Incremental (continue last run)");
 
         Button stepBtn = new Button("Step");
         Button runBtn = new Button("Run");
         Button pauseBtn = new Button("Pause");
         Button resetBtn = new Button("Reset");
+        Button scalingBtn = new Button("Scaling report");
 
         stepBtn.setMaxWidth(Double.MAX_VALUE);
         runBtn.setMaxWidth(Double.MAX_VALUE);
         pauseBtn.setMaxWidth(Double.MAX_VALUE);
         resetBtn.setMaxWidth(Double.MAX_VALUE);
+        scalingBtn.setMaxWidth(Double.MAX_VALUE);
 
         pauseBtn.setDisable(true);
 
@@ -222,12 +328,18 @@ public class MainApp extends Application {
         runForm.addRow(2, new Label("Max iter:"), maxIterField);
         runForm.addRow(3, new Label("Eps:"), epsField);
         runForm.addRow(4, new Label("Threads:"), threadsField);
+        runForm.addRow(5, new Label("Coreset size:"), coresetField);
+        runForm.add(dedupBox, 0, 6, 2, 1);
+        runForm.addRow(7, new Label("Pre-reduce:"), reductionBox);
+        runForm.addRow(8, new Label("Reduced dim:"), reducedDimField);
+        runForm.add(incrementalBox, 0, 9, 2, 1);
 
         right.getChildren().addAll(
                 runTitle,
                 runForm,
                 new Separator(),
                 stepBtn, runBtn, pauseBtn, resetBtn,
+                scalingBtn,
                 new Separator(),
                 iterLabel, sseLabel, timeLabel, drawLabel,
                 new Separator(),
@@ -269,34 +381,47 @@ public class MainApp extends Application {
         genBtn.setOnAction(e -> {
             int n;
             long seed;
-            double sigma;
+            DataGenerator.Spec spec;
 
             try {
                 n = Integer.parseInt(nField.getText().trim());
                 seed = Long.parseLong(seedField.getText().trim());
-                sigma = Double.parseDouble(sigmaField.getText().trim());
-                if (n <= 0) throw new NumberFormatException();
-                if (sigma <= 0) throw new NumberFormatException();
+                double sigma = Double.parseDouble(sigmaField.getText().trim());
+                int d = Integer.parseInt(dField.getText().trim());
+                int clusters = Integer.parseInt(clustersField.getText().trim());
+                if (n <= 0 || sigma <= 0 || d < 2 || clusters <= 0) throw new NumberFormatException();
+                spec = DataGenerator.Spec.of(presetBox.getValue(), d, clusters, sigma);
             } catch (Exception ex) {
-                showError("Bad input", "Check N/Seed/Sigma values.");
+                showError("Bad input", "Check N/Seed/Sigma/D/Clusters values (D >= 2).");
                 return;
             }
 
             genBtn.setDisable(true);
             status.setText("Generating dataset...");
 
-            Task<Long> task = new Task<>() {
+            Task<DatasetGenerationPipeline.Result> task = new Task<>() {
                 @Override
-                protected Long call() {
-                    var points = DataGenerator.generate(n, seed, 4, sigma);
-                    String name = "gen_N" + n + "_seed" + seed;
-                    return datasetRepo.createDataset(name, n, seed, sigma, points);
+                protected DatasetGenerationPipeline.Result call() {
+                    String name = spec.preset() == WorkloadPreset.SOCIAL
+                            ? "gen_N" + n + "_seed" + seed
+                            : "gen_" + spec.preset().name().toLowerCase() + "_N" + n + "_d" + spec.d() + "_seed" + seed;
+                    AtomicLong lastUi = new AtomicLong(0);
+                    return DatasetGenerationPipeline.generate(datasetRepo, name, n, seed, spec,
+                            Runtime.getRuntime().availableProcessors(), (written, total) -> {
+                                long now = System.nanoTime();
+                                if (written < total && now - lastUi.get() < UI_THROTTLE_NS) return;
+                                lastUi.set(now);
+                                updateMessage(String.format("Generating dataset: %,d / %,d points", written, total));
+                            });
                 }
             };
+            task.messageProperty().addListener((obs, o, msg) -> status.setText(msg));
 
             task.setOnSucceeded(ev -> {
-                long id = task.getValue();
-                status.setText("Dataset created: id=" + id);
+                long id = task.getValue().datasetId();
+                status.setText(task.getValue().reused()
+                        ? "Same parameters already generated: reusing dataset id=" + id
+                        : "Dataset created: id=" + id);
                 genBtn.setDisable(false);
 
                 reloadDatasets();
@@ -324,6 +449,129 @@ public class MainApp extends Application {
             bg.submit(task);
         });
 
+        // Import CSV/TSV export
+        importBtn.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Import dataset");
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("CSV / TSV", "*.csv", "*.tsv", "*.txt"),
+                    new FileChooser.ExtensionFilter("All files", "*.*"));
+            File file = chooser.showOpenDialog(primaryStage);
+            if (file == null) return;
+
+            importBtn.setDisable(true);
+            status.setText("Importing " + file.getName() + " ...");
+
+            Task<CsvImporter.Result> task = new Task<>() {
+                @Override
+                protected CsvImporter.Result call() throws Exception {
+                    CsvImporter importer = new CsvImporter(datasetRepo, Runtime.getRuntime().availableProcessors());
+                    AtomicLong lastUi = new AtomicLong(0);
+                    return importer.importFile(file.toPath(), file.getName(), (done, total, rows) -> {
+                        long now = System.nanoTime();
+                        if (done < total && now - lastUi.get() < UI_THROTTLE_NS) return;
+                        lastUi.set(now);
+                        updateMessage(String.format("Importing %s: %,.1f / %,.1f MB, %,d rows",
+                                file.getName(), done / 1048576.0, total / 1048576.0, rows));
+                    });
+                }
+            };
+            task.messageProperty().addListener((obs, o, msg) -> status.setText(msg));
+
+            task.setOnSucceeded(ev -> {
+                importBtn.setDisable(false);
+                CsvImporter.Result r = task.getValue();
+                status.setText(r.reused()
+                        ? "Same content already imported: reusing dataset id=" + r.datasetId()
+                        : String.format("Imported %s: id=%d, %,d rows in %.1f s",
+                                file.getName(), r.datasetId(), r.rows(), r.ms() / 1000.0));
+
+                reloadDatasets();
+                for (DatasetInfo di : datasetList.getItems()) {
+                    if (di.id() == r.datasetId()) {
+                        datasetList.getSelectionModel().select(di);
+                        break;
+                    }
+                }
+            });
+
+            task.setOnFailed(ev -> {
+                importBtn.setDisable(false);
+                Throwable ex = task.getException();
+                if (ex != null) ex.printStackTrace();
+                showError("Import failed", ex != null ? ex.getMessage() : "Unknown error");
+                status.setText("Import failed");
+            });
+
+            bg.submit(task);
+        });
+
+        // Append generated points to the selected dataset
+        appendBtn.setOnAction(e -> {
+            DatasetInfo selected = datasetList.getSelectionModel().getSelectedItem();
+            if (selected == null) return;
+
+            int n;
+            DataGenerator.Spec spec;
+            long seed;
+            try {
+                n = Integer.parseInt(nField.getText().trim());
+                double sigma = Double.parseDouble(sigmaField.getText().trim());
+                int d = Integer.parseInt(dField.getText().trim());
+                int clusters = Integer.parseInt(clustersField.getText().trim());
+                if (n <= 0 || sigma <= 0 || clusters <= 0) throw new NumberFormatException();
+                spec = DataGenerator.Spec.of(presetBox.getValue(), d, clusters, sigma);
+                seed = Long.parseLong(seedField.getText().trim());
+            } catch (Exception ex) {
+                showError("Bad input", "Check N/Seed/Sigma/D/Clusters values.");
+                return;
+            }
+            if (spec.d() != selected.d()) {
+                showError("Dimension mismatch", "Dataset #" + selected.id() + " has D=" + selected.d()
+                        + ", generator settings give D=" + spec.d() + ".");
+                return;
+            }
+
+            appendBtn.setDisable(true);
+            status.setText("Appending " + n + " points to dataset id=" + selected.id() + " ...");
+
+            Task<Integer> task = new Task<>() {
+                @Override
+                protected Integer call() {
+                    // продолжение того же генератора: idx selected.n() .. selected.n() + n - 1
+                    int from = selected.n();
+                    List<PointVector> gen = DataGenerator.model(from + n, seed, spec).range(from, from + n);
+                    List<double[]> rows = new ArrayList<>(gen.size());
+                    for (PointVector p : gen) rows.add(p.x());
+                    return datasetRepo.appendPoints(selected.id(), rows);
+                }
+            };
+
+            task.setOnSucceeded(ev -> {
+                appendBtn.setDisable(false);
+                status.setText(String.format("Appended %,d points to dataset id=%d: N=%,d",
+                        n, selected.id(), task.getValue()));
+
+                reloadDatasets();
+                for (DatasetInfo di : datasetList.getItems()) {
+                    if (di.id() == selected.id()) {
+                        datasetList.getSelectionModel().select(di);
+                        break;
+                    }
+                }
+            });
+
+            task.setOnFailed(ev -> {
+                appendBtn.setDisable(false);
+                Throwable ex = task.getException();
+                if (ex != null) ex.printStackTrace();
+                showError("Append failed", ex != null ? ex.getMessage() : "Unknown error");
+                status.setText("Append failed");
+            });
+
+            bg.submit(task);
+        });
+
         // Delete selected dataset
         delBtn.setOnAction(e -> {
             DatasetInfo selected = datasetList.getSelectionModel().getSelectedItem();
@@ -359,7 +607,8 @@ public class MainApp extends Application {
                 delBtn.setDisable(false);
 
                 boolean ok = Boolean.TRUE.equals(t.getValue());
-                status.setText(ok ? "Deleted dataset #" + selected.id() : "Dataset not found");
+                status.setText(ok ? "Deleted dataset #" + selected.id() + " (data is removed in the background)"
+                        : "Dataset not found");
 
                 reloadDatasets();
 
@@ -385,6 +634,7 @@ public class MainApp extends Application {
         // Dataset selection
         datasetList.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> {
             delBtn.setDisable(selected == null);
+            appendBtn.setDisable(selected == null);
 
             running = false;
             pauseBtn.setDisable(true);
@@ -413,25 +663,41 @@ public class MainApp extends Application {
             }
 
             status.setText("Loading points for dataset id=" + selected.id() + " ...");
+            final ScalingMode scaling = scalingBox.getValue();
 
-            Task<List<PointVector>> loadTask = new Task<>() {
+            Task<LoadedDataset> loadTask = new Task<>() {
                 @Override
-                protected List<PointVector> call() {
-                    return datasetRepo.loadPoints(selected.id());
+                protected LoadedDataset call() {
+                    AtomicLong lastReport = new AtomicLong();
+                    List<PointVector> points = datasetRepo.loadPoints(selected.id(), scaling, (loaded, total) -> {
+                        // не чаще ~10 раз в секунду, последний отчёт — всегда
+                        long now = System.nanoTime();
+                        long prev = lastReport.get();
+                        if (loaded < total && (now - prev < 100_000_000L || !lastReport.compareAndSet(prev, now))) return;
+                        Platform.runLater(() -> status.setText(String.format(
+                                "Loading dataset id=%d: %,d / %,d points", selected.id(), loaded, total)));
+                    });
+                    return new LoadedDataset(points, scaling);
                 }
             };
 
             loadTask.setOnSucceeded(ev -> {
-                currentPoints = loadTask.getValue();
+                LoadedDataset loaded = loadTask.getValue();
+                currentPoints = loaded.points();
+                currentScaling = loaded.scaling();
                 currentDatasetId = selected.id();
 
                 plot.setSampleSeed(selected.id());
                 applySampleMode(plot, modeBox.getValue());
+                if (!currentPoints.isEmpty()) setAxisChoices(xAxis, yAxis, currentPoints.get(0).x().length);
 
                 plot.setData(currentPoints, xAxis.getValue(), yAxis.getValue());
                 updateDrawLabel(plot, drawLabel);
+                if (pcaAxesBox.isSelected()) loadPcaAxes(plot, pcaAxesBox);
+                boolean firstLoad = startup.mark(StartupTrace.Mark.FIRST_DATASET);
 
-                status.setText("Loaded " + currentPoints.size() + " points (dataset id=" + selected.id() + ")");
+                status.setText(String.format("Loaded %d points (dataset id=%d)", currentPoints.size(), selected.id())
+                        + (firstLoad ? " | startup: " + startup : ""));
             });
 
             loadTask.setOnFailed(ev -> {
@@ -443,6 +709,79 @@ public class MainApp extends Application {
             bg.submit(loadTask);
         });
 
+        pcaAxesBox.selectedProperty().addListener((obs, old, on) -> {
+            if (on) loadPcaAxes(plot, pcaAxesBox);
+            else plot.setProjection(null);
+            xAxis.setDisable(on);
+            yAxis.setDisable(on);
+        });
+
+        // Смена масштабирования -> перечитываем выбранный датасет
+        scalingBox.valueProperty().addListener((obs, old, mode) -> {
+            DatasetInfo selected = datasetList.getSelectionModel().getSelectedItem();
+            if (selected == null) return;
+            datasetList.getSelectionModel().clearSelection();
+            datasetList.getSelectionModel().select(selected);
+        });
+
+        // Strong / weak scaling: серия BENCHMARK-прогонов на 1..Threads потоках
+        scalingBtn.setOnAction(e -> {
+            if (currentDatasetId < 0 || currentPoints.isEmpty()) {
+                showError("No dataset", "Select dataset first.");
+                return;
+            }
+            if (running || currentRunId >= 0) {
+                showError("Run in progress", "Finish or reset the current run first.");
+                return;
+            }
+
+            RunParams p = parseRunParams(modeBox, kField, maxIterField, epsField, threadsField, coresetField, dedupBox,
+                    reductionBox, reducedDimField, incrementalBox);
+            if (p == null) return;
+
+            final long datasetIdSnapshot = currentDatasetId;
+            final List<PointVector> pointsSnapshot = currentPoints;
+
+            scalingBtn.setDisable(true);
+            runBtn.setDisable(true);
+            stepBtn.setDisable(true);
+
+            Task<List<ScalingExperiment.Point>> t = new Task<>() {
+                @Override
+                protected List<ScalingExperiment.Point> call() {
+                    return new ScalingExperiment(runRepo, metricsRepo).run(
+                            datasetIdSnapshot, pointsSnapshot, p.k(), p.maxIter(), p.eps(), p.options().workThreads(),
+                            msg -> Platform.runLater(() -> status.setText(msg)));
+                }
+            };
+
+            t.setOnSucceeded(ev -> {
+                scalingBtn.setDisable(false);
+                runBtn.setDisable(false);
+                stepBtn.setDisable(false);
+                status.setText("Scaling report ready");
+
+                var rows = new ArrayList<ResultsWindow.ScalingRow>();
+                for (ScalingExperiment.Point sp : t.getValue()) {
+                    rows.add(new ResultsWindow.ScalingRow(sp.kind().name(), sp.threads(), sp.n(), sp.runId(),
+                            sp.iterations(), sp.avgIterMs(), sp.speedup(), sp.efficiency()));
+                }
+                ResultsWindow.showScaling(primaryStage, datasetIdSnapshot, p.k(), rows);
+            });
+
+            t.setOnFailed(ev -> {
+                scalingBtn.setDisable(false);
+                runBtn.setDisable(false);
+                stepBtn.setDisable(false);
+                Throwable ex = t.getException();
+                if (ex != null) ex.printStackTrace();
+                showError("Scaling report failed", ex != null ? ex.getMessage() : "Unknown error");
+                status.setText("Scaling report failed");
+            });
+
+            bg.submit(t);
+        });
+
         // Reset
         resetBtn.setOnAction(e -> {
             running = false;
@@ -486,10 +825,11 @@ public class MainApp extends Application {
                 return;
             }
 
-            RunParams p = parseRunParams(modeBox, kField, maxIterField, epsField, threadsField);
+            RunParams p = parseRunParams(modeBox, kField, maxIterField, epsField, threadsField, coresetField, dedupBox,
+                    reductionBox, reducedDimField, incrementalBox);
             if (p == null) return;
 
-            if (session == null) {
+            if (currentRunId < 0) {
                 try {
                     startNewRun(p, sseSeries, timeSeries);
                     plot.clearClustering();
@@ -508,11 +848,21 @@ public class MainApp extends Application {
                 return;
             }
 
+            final RunParams pSession = lastRunParams;
+            final long datasetIdSession = currentDatasetId;
+            final List<PointVector> pointsSession = currentPoints;
+            final ScalingMode scalingSession = currentScaling;
+
             Task<IterationSnapshot> t = new Task<>() {
                 @Override
                 protected IterationSnapshot call() {
+                    ensureSession(runId, pSession, datasetIdSession, scalingSession, pointsSession);
                     IterationSnapshot s = session.step();
-                    metricsRepo.insertIterMetrics(runId, s.iter(), s.sse(), s.assignMs(), s.updateMs(), s.totalMs());
+                    iterWriter.submit(runId, s.iter(), s.sse(), s.assignMs(), s.updateMs(), s.totalMs());
+                    if (s.stopReason() != null) {
+                        iterWriter.flush();
+                        s = expandToFullData(s, pointsSession, pSession.threads());
+                    }
                     return s;
                 }
             };
@@ -525,7 +875,7 @@ public class MainApp extends Application {
                 sumAssignMs += s.assignMs();
                 sumUpdateMs += s.updateMs();
 
-                plot.setClustering(s.assignment(), s.centroids());
+                plot.setClustering(plotAssignment(s), s.centroids());
                 iterLabel.setText("iter: " + s.iter());
                 sseLabel.setText(String.format("sse: %.6f", s.sse()));
                 timeLabel.setText(String.format("iter ms: %.2f (assign %.2f / update %.2f)",
@@ -538,7 +888,7 @@ public class MainApp extends Application {
                     status.setText("Finished: " + s.stopReason());
 
                     // Step handler runs on FX thread -> safe
-                    finalizeRun(runId, s, lastRunParams, currentDatasetId, currentPoints);
+                    finalizeRun(runId, s, lastRunParams, currentDatasetId, currentPoints, scalingSession);
 
                     closeSession();
                     currentRunId = -1;
@@ -556,6 +906,7 @@ public class MainApp extends Application {
                 status.setText("Step failed");
 
                 closeSession();
+                markFailed(currentRunId, ex);
                 currentRunId = -1;
                 lastRunParams = null;
             });
@@ -572,10 +923,11 @@ public class MainApp extends Application {
                 return;
             }
 
-            RunParams p = parseRunParams(modeBox, kField, maxIterField, epsField, threadsField);
+            RunParams p = parseRunParams(modeBox, kField, maxIterField, epsField, threadsField, coresetField, dedupBox,
+                    reductionBox, reducedDimField, incrementalBox);
             if (p == null) return;
 
-            if (session == null) {
+            if (currentRunId < 0) {
                 try {
                     startNewRun(p, sseSeries, timeSeries);
                     plot.clearClustering();
@@ -600,6 +952,7 @@ public class MainApp extends Application {
             final RunParams pSnapshot = (lastRunParams != null) ? lastRunParams : p;
             final long datasetIdSnapshot = currentDatasetId;
             final List<PointVector> pointsSnapshot = currentPoints;
+            final ScalingMode scalingSnapshot = currentScaling;
 
             running = true;
             runBtn.setDisable(true);
@@ -609,9 +962,10 @@ public class MainApp extends Application {
             Task<Void> runTask = new Task<>() {
                 @Override
                 protected Void call() {
+                    ensureSession(runId, pSnapshot, datasetIdSnapshot, scalingSnapshot, pointsSnapshot);
                     while (running) {
                         IterationSnapshot s = session.step();
-                        metricsRepo.insertIterMetrics(runId, s.iter(), s.sse(), s.assignMs(), s.updateMs(), s.totalMs());
+                        iterWriter.submit(runId, s.iter(), s.sse(), s.assignMs(), s.updateMs(), s.totalMs());
 
                         iterCount++;
                         sumIterMs += s.totalMs();
@@ -627,7 +981,7 @@ public class MainApp extends Application {
                         if (timeToUpdate || s.stopReason() != null) {
                             lastUiUpdateNano = now;
                             Platform.runLater(() -> {
-                                plot.setClustering(s.assignment(), s.centroids());
+                                plot.setClustering(plotAssignment(s), s.centroids());
 
                                 iterLabel.setText("iter: " + s.iter());
                                 sseLabel.setText(String.format("sse: %.6f", s.sse()));
@@ -640,9 +994,12 @@ public class MainApp extends Application {
                         }
 
                         if (s.stopReason() != null) {
+                            iterWriter.flush();
+                            IterationSnapshot fin = expandToFullData(s, pointsSnapshot, pSnapshot.threads());
                             Platform.runLater(() -> {
-                                status.setText("Finished: " + s.stopReason());
-                                finalizeRun(runId, s, pSnapshot, datasetIdSnapshot, pointsSnapshot);
+                                plot.setClustering(fin.assignment(), fin.centroids());
+                                status.setText("Finished: " + fin.stopReason());
+                                finalizeRun(runId, fin, pSnapshot, datasetIdSnapshot, pointsSnapshot, scalingSnapshot);
                             });
                             break;
                         }
@@ -679,6 +1036,7 @@ public class MainApp extends Application {
                 status.setText("Run failed");
 
                 closeSession();
+                markFailed(runId, ex);
                 currentRunId = -1;
                 lastRunParams = null;
             });
@@ -687,19 +1045,67 @@ public class MainApp extends Application {
         });
 
         // ---------- initial load ----------
-        reloadDatasets();
-        if (!datasetList.getItems().isEmpty()) {
-            datasetList.getSelectionModel().select(0);
-        } else {
-            plot.setData(List.of(), xAxis.getValue(), yAxis.getValue());
-            updateDrawLabel(plot, drawLabel);
-        }
+        // Сначала окно; миграции, список датасетов и первый датасет — в bg. Это первая задача
+        // однопоточного bg, так что все остальные обращения к базе из задач встают за ней
+        plot.setData(List.of(), xAxis.getValue(), yAxis.getValue());
+        updateDrawLabel(plot, drawLabel);
+        status.setText("Opening database...");
+
+        Task<List<DatasetInfo>> initTask = new Task<>() {
+            @Override
+            protected List<DatasetInfo> call() {
+                Database.init();
+                startup.mark(StartupTrace.Mark.DB_READY);
+                DatasetPurger.shared().resume(); // дочистить удалённые в прошлый раз
+                return datasetRepo.listDatasets();
+            }
+        };
+        initTask.setOnSucceeded(ev -> {
+            datasetList.setItems(FXCollections.observableArrayList(initTask.getValue()));
+            startup.mark(StartupTrace.Mark.DATASETS);
+            if (!datasetList.getItems().isEmpty()) {
+                status.setText("Ready");
+                datasetList.getSelectionModel().select(0);
+            } else {
+                status.setText("Ready | startup: " + startup);
+            }
+        });
+        initTask.setOnFailed(ev -> {
+            Throwable ex = initTask.getException();
+            if (ex != null) ex.printStackTrace();
+            showError("Database unavailable", ex != null ? ex.getMessage() : "Unknown error");
+            status.setText("DB init failed");
+        });
+        bg.submit(initTask);
 
         stage.setTitle("ROSL");
-        stage.setScene(new Scene(root, 1100, 750));
+        Scene scene = new Scene(root, 1100, 750);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                startup.mark(StartupTrace.Mark.FIRST_FRAME);
+            }
+        });
+        stage.setScene(scene);
         stage.show();
     }
 
+    // Признаки 0..d-1; выбор осей сохраняется, если он есть в новом датасете
+    private static void setAxisChoices(ComboBox<Integer> xAxis, ComboBox<Integer> yAxis, int d) {
+        if (xAxis.getItems().size() == d) return;
+        Integer x = xAxis.getValue();
+        Integer y = yAxis.getValue();
+
+        List<Integer> dims = new ArrayList<>(d);
+        for (int i = 0; i < d; i++) dims.add(i);
+        xAxis.getItems().setAll(dims);
+        yAxis.getItems().setAll(dims);
+
+        xAxis.setValue(x != null && x < d ? x : 0);
+        yAxis.setValue(y != null && y < d ? y : Math.min(1, d - 1));
+    }
+
     private void applySampleMode(PlotCanvas plot, RunMode mode) {
         if (mode == RunMode.BENCHMARK) plot.setSampleLimit(BENCH_SAMPLE_LIMIT);
         else plot.setSampleLimit(0);
@@ -716,22 +1122,34 @@ public class MainApp extends Application {
 
     private RunParams parseRunParams(ComboBox<RunMode> modeBox,
                                      TextField kField, TextField maxIterField,
-                                     TextField epsField, TextField threadsField) {
+                                     TextField epsField, TextField threadsField,
+                                     TextField coresetField, CheckBox dedupBox,
+                                     ComboBox<ReductionMode> reductionBox, TextField reducedDimField,
+                                     CheckBox incrementalBox) {
         try {
             RunMode mode = modeBox.getValue();
             int k = Integer.parseInt(kField.getText().trim());
             int maxIter = Integer.parseInt(maxIterField.getText().trim());
             double eps = Double.parseDouble(epsField.getText().trim());
-            int threads = Integer.parseInt(threadsField.getText().trim());
+            String th = threadsField.getText().trim();
+            int threads = th.equalsIgnoreCase("auto") ? SessionFactory.AUTO_THREADS : Integer.parseInt(th);
+            String cs = coresetField.getText().trim();
+            int coresetSize = cs.isEmpty() ? 0 : Integer.parseInt(cs);
+            ReductionMode reduction = reductionBox.getValue() == null ? ReductionMode.NONE : reductionBox.getValue();
+            int reducedDim = Integer.parseInt(reducedDimField.getText().trim());
 
             if (k <= 1) throw new IllegalArgumentException("K must be >= 2");
             if (maxIter <= 0) throw new IllegalArgumentException("MaxIter must be > 0");
             if (eps <= 0) throw new IllegalArgumentException("Eps must be > 0");
-            if (threads <= 0) throw new IllegalArgumentException("Threads must be > 0");
+            if (threads < 0) throw new IllegalArgumentException("Threads must be > 0 or auto");
+            if (coresetSize < 0) throw new IllegalArgumentException("Coreset size must be >= 0");
+            if (coresetSize > 0 && coresetSize < k) throw new IllegalArgumentException("Coreset size must be >= K");
+            if (reducedDim <= 0) throw new IllegalArgumentException("Reduced dim must be > 0");
 
-            return new RunParams(mode, k, maxIter, eps, threads);
+            return new RunParams(mode, k, maxIter, eps, threads, coresetSize, dedupBox.isSelected(),
+                    reduction, reducedDim, incrementalBox.isSelected());
         } catch (Exception ex) {
-            showError("Bad run params", "Check Mode/K/MaxIter/Eps/Threads.\n" + ex.getMessage());
+            showError("Bad run params", "Check Mode/K/MaxIter/Eps/Threads (number or auto)/Coreset/Reduction.\n" + ex.getMessage());
             return null;
         }
     }
@@ -744,9 +1162,8 @@ public class MainApp extends Application {
         sseSeries.getData().clear();
         timeSeries.getData().clear();
 
-        session = new KMeansSession(currentPoints, p.k(), p.maxIter(), p.eps(), 12345L, p.threads());
-
-        long rid = runRepo.createRun(currentDatasetId, p.mode(), p.k(), p.threads(), p.maxIter(), p.eps());
+        // сама сессия (и coreset) создаётся в фоне, см. ensureSession
+        long rid = runRepo.createRun(currentDatasetId, p.mode(), p.engine(), currentScaling, p.k(), p.threads(), p.maxIter(), p.eps());
         if (rid <= 0) throw new IllegalStateException("RunRepository.createRun returned invalid id: " + rid);
 
         currentRunId = rid;
@@ -755,18 +1172,78 @@ public class MainApp extends Application {
         status.setText("Run created: id=" + currentRunId);
     }
 
+    // Вызывается из bg-потока перед первым шагом прогона
+    private void ensureSession(long runId, RunParams p, long datasetId, ScalingMode scaling, List<PointVector> points) {
+        if (session != null) return;
+
+        SessionFactory.Prepared prep = sessionFactory.prepare(p.options(), datasetId, scaling, points,
+                msg -> Platform.runLater(() -> status.setText(msg)));
+        sessionPrep = prep;
+        session = prep.session();
+        // dedup без повторов, coreset не меньше датасета и т.п. — по факту обычный прогон
+        if (!prep.engine().equals(p.engine())) runRepo.updateEngine(runId, prep.engine());
+    }
+
+    private void loadPcaAxes(PlotCanvas plot, CheckBox pcaAxesBox) {
+        final long datasetId = currentDatasetId;
+        final ScalingMode scaling = currentScaling;
+        final List<PointVector> points = currentPoints;
+        if (datasetId < 0 || points.isEmpty()) return;
+
+        Task<Projection> t = new Task<>() {
+            @Override
+            protected Projection call() {
+                return sessionFactory.projectionFor(datasetId, scaling, ReductionMode.PCA, 2, points,
+                        Runtime.getRuntime().availableProcessors());
+            }
+        };
+        t.setOnSucceeded(ev -> {
+            if (pcaAxesBox.isSelected() && datasetId == currentDatasetId) plot.setProjection(t.getValue());
+        });
+        t.setOnFailed(ev -> {
+            Throwable ex = t.getException();
+            showError("PCA failed", ex != null ? ex.getMessage() : "Unknown error");
+            pcaAxesBox.setSelected(false);
+        });
+        bg.submit(t);
+    }
+
+    private IterationSnapshot expandToFullData(IterationSnapshot s, List<PointVector> points, int threads) {
+        SessionFactory.Prepared prep = sessionPrep;
+        KMeansSession sess = session;
+        if (threads == SessionFactory.AUTO_THREADS && sess != null) threads = sess.getThreads();
+        return prep == null ? s : prep.expandToFullData(s, points, threads);
+    }
+
+    private int[] plotAssignment(IterationSnapshot s) {
+        SessionFactory.Prepared prep = sessionPrep;
+        return prep == null ? s.assignment() : prep.plotAssignment(s);
+    }
+
     // Wrapper (kept for compatibility)
     private void finalizeRun(long runId, IterationSnapshot last) {
-        finalizeRun(runId, last, lastRunParams, currentDatasetId, currentPoints);
+        finalizeRun(runId, last, lastRunParams, currentDatasetId, currentPoints, currentScaling);
     }
 
     // Snapshot-based finalize (fix ResultsWindow disappearing)
     private void finalizeRun(long runId, IterationSnapshot last,
-                             RunParams p, long datasetId, List<PointVector> points) {
+                             RunParams p, long datasetId, List<PointVector> points, ScalingMode scaling) {
 
         // 1) Сначала считаем метрики (это чисто в памяти)
+        KMeansSession sess = session; // ещё не закрыта: closeSession() идёт после finalizeRun
+        SessionMetrics.Summary hot = (sess != null) ? sess.metrics().summary() : null;
+        int threadsUsed = (sess != null) ? sess.getThreads() : (p != null ? p.threads() : 0);
         var cm = ClusterMetricsCalc.compute(points, last.assignment(), last.centroids());
 
+        // coreset: last.sse() — взвешенная оценка по coreset'у; итог считаем по всем точкам,
+        // чтобы он сходился с построчными SSE кластеров и сравнивался с PLAIN
+        SessionFactory.Prepared prep = sessionPrep;
+        double finalSse = last.sse();
+        if (prep != null && prep.coreset() != null) {
+            finalSse = 0.0;
+            for (double v : cm.clusterSse()) finalSse += v;
+        }
+
         // 2) Сначала показываем окно (чтобы оно НЕ зависело от БД)
         try {
             if (p != null && primaryStage != null) {
@@ -792,13 +1269,13 @@ public class MainApp extends Application {
                         datasetId,
                         p.mode().name(),
                         p.k(),
-                        p.threads(),
+                        threadsUsed,
                         p.maxIter(),
                         p.eps(),
                         last.stopReason(),
                         totalMs,
                         last.iter(),
-                        last.sse(),
+                        finalSse,
                         avgIter,
                         avgAssign,
                         avgUpdate
@@ -818,8 +1295,7 @@ public class MainApp extends Application {
 
         // 3) А уже потом — БД (и всё в try/catch, чтобы не убить поток)
         try {
-            resultRepo.saveCentroids(runId, last.centroids());
-            resultRepo.saveAssignments(runId, last.assignment());
+            resultRepo.saveResult(runId, last.centroids(), last.assignment());
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -840,11 +1316,20 @@ public class MainApp extends Application {
                     runId,
                     totalMs,
                     last.iter(),
-                    last.sse(),
+                    finalSse,
                     avgIter,
                     avgAssign,
                     avgUpdate
             );
+            if (hot != null) metricsRepo.saveRunSummary(runId, hot);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+
+        try {
+            if (p != null && p.threads() == SessionFactory.AUTO_THREADS && threadsUsed > 0) {
+                runRepo.updateThreads(runId, threadsUsed);
+            }
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -855,10 +1340,39 @@ public class MainApp extends Application {
             ex.printStackTrace();
         }
 
+        // 4) Выигрыш дедупликации — по времени итерации против последнего прогона без неё (запрос к БД — в bg)
+        if (p != null && prep != null && prep.dedup() != null && iterCount > 0) {
+            final int k = p.k();
+            final double avgIterMs = sumIterMs / iterCount;
+            bg.submit(() -> {
+                try {
+                    String report = dedupReport(prep, datasetId, scaling, k, avgIterMs);
+                    Platform.runLater(() -> status.setText(status.getText() + " | " + report));
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            });
+        }
+
         resetRunStats();
     }
 
 
+    private String dedupReport(SessionFactory.Prepared prep, long datasetId, ScalingMode scaling, int k,
+                               double avgIterMs) {
+        PointDeduplicator.Dedup d = prep.dedup();
+        String out = String.format("dedup x%.2f (%,d unique, %s), avg iter %.2f ms",
+                d.compressionRatio(), d.size(),
+                prep.dedupMs() > 0 ? String.format("built in %.1f ms", prep.dedupMs()) : "cached", avgIterMs);
+
+        MetricsRepository.RunTiming plain = metricsRepo.findLastTiming(datasetId, scaling, k, "PLAIN");
+        if (plain == null || plain.avgIterMs() <= 0) {
+            return out + " (no run without dedup for K=" + k + " to compare)";
+        }
+        return out + String.format(" vs %.2f ms without dedup (run #%d): x%.1f",
+                plain.avgIterMs(), plain.runId(), plain.avgIterMs() / avgIterMs);
+    }
+
     private void resetRunStats() {
         runStartNano = 0L;
         sumIterMs = 0.0;
@@ -881,18 +1395,29 @@ public class MainApp extends Application {
         a.showAndWait();
     }
 
+    // Прогон, упавший с исключением, не должен остаться в RUNNING
+    private void markFailed(long runId, Throwable ex) {
+        if (runId < 0) return;
+        String reason = ex != null ? ex.toString() : "Unknown error";
+        bg.submit(() -> runRepo.finishRun(runId, "FAILED", reason));
+    }
+
     private void closeSession() {
         if (session != null) {
             try { session.close(); } catch (Exception ignored) {}
             session = null;
         }
+        sessionPrep = null;
     }
 
     @Override
     public void stop() {
         running = false;
         closeSession();
+        iterWriter.close();
+        MetricsHttpServer.stop();
         bg.shutdownNow();
+        Database.shutdown();
         Platform.exit();
     }
 
@@ -0,0 +1,103 @@
+package org.example;
+
+import org.example.core.kmeans.IterationSnapshot;
+import org.example.core.kmeans.KMeansSession;
+import org.example.db.MetricsRepository;
+import org.example.db.RunRepository;
+import org.example.model.PointVector;
+import org.example.model.RunMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Эксперимент масштабируемости по потокам на одном датасете:
+//   strong — весь датасет при 1..N потоках, speedup = T(1) / T(p), efficiency = speedup / p;
+//   weak   — префикс датасета n·p/N точек при p потоках, efficiency = T(1) / T(p), speedup = p · efficiency.
+// T — среднее время итерации из run_metrics (число итераций у прогонов разное).
+public final class ScalingExperiment {
+
+    public enum Kind { STRONG, WEAK }
+
+    public record Point(Kind kind, int threads, int n, long runId, int iterations,
+                        double avgIterMs, double speedup, double efficiency) {}
+
+    private static final int WARMUP_ITERS = 3;
+
+    private final RunRepository runRepo;
+    private final MetricsRepository metricsRepo;
+
+    public ScalingExperiment(RunRepository runRepo, MetricsRepository metricsRepo) {
+        this.runRepo = runRepo;
+        this.metricsRepo = metricsRepo;
+    }
+
+    // 1, 2, 4, ... , maxThreads
+    public static List<Integer> threadSteps(int maxThreads) {
+        List<Integer> out = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) out.add(t);
+        out.add(Math.max(1, maxThreads));
+        return out;
+    }
+
+    public List<Point> run(long datasetId, List<PointVector> points, int k, int maxIter, double eps,
+                           int maxThreads, Consumer<String> progress) {
+        List<Integer> steps = threadSteps(maxThreads);
+        warmup(points, k, maxThreads);
+
+        List<Point> out = new ArrayList<>();
+        for (Kind kind : Kind.values()) {
+            double base = Double.NaN;
+            for (int t : steps) {
+                int n = (kind == Kind.STRONG)
+                        ? points.size()
+                        : (int) Math.max(k, (long) points.size() * t / maxThreads);
+                progress.accept(String.format("Scaling %s: threads=%d, n=%d ...", kind, t, n));
+
+                long runId = runOne(datasetId, points.subList(0, n), kind, k, maxIter, eps, t);
+                MetricsRepository.RunTiming rt = metricsRepo.loadRunTiming(runId);
+                if (rt == null) throw new IllegalStateException("run_metrics missing for run " + runId);
+
+                if (t == 1) base = rt.avgIterMs();
+                double ratio = rt.avgIterMs() > 0 ? base / rt.avgIterMs() : Double.NaN;
+                double speedup = (kind == Kind.STRONG) ? ratio : ratio * t;
+                double efficiency = (kind == Kind.STRONG) ? ratio / t : ratio;
+
+                out.add(new Point(kind, t, n, runId, rt.iterations(), rt.avgIterMs(), speedup, efficiency));
+            }
+        }
+        return out;
+    }
+
+    private long runOne(long datasetId, List<PointVector> points, Kind kind,
+                        int k, int maxIter, double eps, int threads) {
+        long runId = runRepo.createRun(datasetId, RunMode.BENCHMARK, "SCALING_" + kind, k, threads, maxIter, eps);
+
+        long start = System.nanoTime();
+        double sumIter = 0, sumAssign = 0, sumUpdate = 0;
+        IterationSnapshot last;
+        try (KMeansSession session = new KMeansSession(points, k, maxIter, eps, SessionFactory.SESSION_SEED, threads)) {
+            do {
+                last = session.step();
+                sumIter += last.totalMs();
+                sumAssign += last.assignMs();
+                sumUpdate += last.updateMs();
+            } while (last.stopReason() == null);
+
+            long totalMs = Math.round((System.nanoTime() - start) / 1_000_000.0);
+            int iters = Math.max(1, last.iter());
+            metricsRepo.insertRunMetrics(runId, totalMs, last.iter(), last.sse(),
+                    sumIter / iters, sumAssign / iters, sumUpdate / iters);
+            metricsRepo.saveRunSummary(runId, session.metrics().summary());
+        }
+        runRepo.finishRun(runId, last.stopReason());
+        return runId;
+    }
+
+    // Прогрев JIT, иначе замер при 1 потоке (первый) получается завышенным
+    private static void warmup(List<PointVector> points, int k, int threads) {
+        try (KMeansSession s = new KMeansSession(points, k, WARMUP_ITERS, 0.0, SessionFactory.SESSION_SEED, threads)) {
+            for (int i = 0; i < WARMUP_ITERS; i++) s.step();
+        }
+    }
+}
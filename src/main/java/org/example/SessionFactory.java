@@ -0,0 +1,276 @@
+package org.example;
+
+import org.example.core.Projection;
+import org.example.core.kmeans.CentroidAssigner;
+import org.example.core.kmeans.CoresetBuilder;
+import org.example.core.kmeans.IterationSnapshot;
+import org.example.core.kmeans.KMeansSession;
+import org.example.core.kmeans.PointDeduplicator;
+import org.example.db.CoresetRepository;
+import org.example.db.ProjectionRepository;
+import org.example.db.ResultRepository;
+import org.example.db.RunRepository;
+import org.example.db.ThreadTuningRepository;
+import org.example.model.PointVector;
+import org.example.model.ReductionMode;
+import org.example.model.ScalingMode;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Собирает KMeansSession под параметры прогона: продолжение прошлого прогона, pre-reduction,
+// coreset, дедупликация.
+// Общий для UI (MainApp) и headless-прогонов (BenchmarkCli).
+public final class SessionFactory {
+
+    public static final long SESSION_SEED = 12345L;
+
+    // Options.threads == AUTO_THREADS => подбор по первым итерациям (или из THREAD_TUNING)
+    public static final int AUTO_THREADS = 0;
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    public record Options(int k, int maxIter, double eps, int threads,
+                          int coresetSize, boolean dedup,
+                          ReductionMode reduction, int reducedDim, boolean incremental) {
+
+        public Options(int k, int maxIter, double eps, int threads, int coresetSize, boolean dedup,
+                       ReductionMode reduction, int reducedDim) {
+            this(k, maxIter, eps, threads, coresetSize, dedup, reduction, reducedDim, false);
+        }
+
+        // потоки для подготовительных проходов (coreset, проекция) — при auto все ядра
+        public int workThreads() { return threads > 0 ? threads : CORES; }
+    }
+
+    // coreset / dedup != null => сессия кластеризует уменьшенный набор, а не точки датасета;
+    // dedupMs — сколько строилась дедупликация (0 — взята из кэша).
+    // engine — как сессия собрана на самом деле (имена BenchmarkCli.Engine): запрошенный dedup / coreset /
+    // incremental может не примениться, тогда здесь PLAIN (или PCA / RANDOM_PROJ по стартовым центроидам)
+    public record Prepared(KMeansSession session,
+                           String engine,
+                           CoresetBuilder.Coreset coreset,
+                           PointDeduplicator.Dedup dedup,
+                           double dedupMs) {
+
+        Prepared(KMeansSession session, String engine, CoresetBuilder.Coreset coreset) {
+            this(session, engine, coreset, null, 0.0);
+        }
+
+        // Разворачиваем разметку на все точки датасета:
+        // для дедупликации — по owner-индексам, для coreset — ближайшим центроидом
+        public IterationSnapshot expandToFullData(IterationSnapshot s, List<PointVector> points, int threads) {
+            int[] full;
+            if (dedup != null) full = dedup.expand(s.assignment());
+            else if (coreset != null) full = CentroidAssigner.assign(points, s.centroids(), threads);
+            else return s;
+
+            return new IterationSnapshot(s.iter(), s.sse(), s.assignMs(), s.updateMs(), s.totalMs(),
+                    full, s.centroids(), s.stopReason());
+        }
+
+        // Промежуточные снапшоты coreset-прогона индексированы не по точкам датасета -> только центроиды
+        public int[] plotAssignment(IterationSnapshot s) {
+            if (dedup != null && s.assignment().length == dedup.size()) return dedup.expand(s.assignment());
+            if (coreset != null && s.assignment().length == coreset.size()) return null;
+            return s.assignment();
+        }
+    }
+
+    private final CoresetRepository coresetRepo;
+    private final ProjectionRepository projectionRepo;
+    private final ThreadTuningRepository tuningRepo;
+    private final RunRepository runRepo;
+    private final ResultRepository resultRepo;
+
+    // Дедупликация строится только для прогонов с dedup и держится для последнего набора точек:
+    // хэш-таблица по всем n точкам заметно тормозила обычную загрузку, а повторный прогон по тому же
+    // датасету/scaling её переиспользует. points сравниваются по ссылке (после дозаписи — новый список)
+    private DedupEntry lastDedup; // под this
+
+    public SessionFactory(CoresetRepository coresetRepo, ProjectionRepository projectionRepo,
+                          ThreadTuningRepository tuningRepo, RunRepository runRepo, ResultRepository resultRepo) {
+        this.coresetRepo = coresetRepo;
+        this.projectionRepo = projectionRepo;
+        this.tuningRepo = tuningRepo;
+        this.runRepo = runRepo;
+        this.resultRepo = resultRepo;
+    }
+
+    public Prepared prepare(Options o, long datasetId, ScalingMode scaling,
+                            List<PointVector> points, Consumer<String> progress) {
+        if (o.incremental()) {
+            KMeansSession resumed = resume(o, datasetId, scaling, points, progress);
+            if (resumed != null) return new Prepared(resumed, "INCREMENTAL", null);
+            progress.accept("Incremental: no finished run with K=" + o.k() + ", " + scaling + " -> full run");
+        }
+
+        // стартовые центроиды из кластеризации в пониженной размерности (null => случайные)
+        double[][] init = reducedSpaceCentroids(o, datasetId, scaling, points, progress);
+
+        if (o.coresetSize() > 0 && o.coresetSize() < points.size()) {
+            CoresetBuilder.Coreset cs = coresetRepo.find(datasetId, scaling, o.coresetSize(), SESSION_SEED);
+            boolean cached = cs != null;
+            if (!cached) {
+                cs = CoresetBuilder.build(points, o.coresetSize(), SESSION_SEED, o.workThreads());
+                coresetRepo.save(datasetId, scaling, o.coresetSize(), SESSION_SEED, cs);
+            }
+
+            progress.accept("Coreset: " + cs.size() + " of " + points.size()
+                    + " points" + (cached ? " (cached)" : " (built)"));
+
+            return new Prepared(newSession(cs.points(points), cs.weights(), o, init, progress), "CORESET", cs);
+        }
+
+        // дедупликация имеет смысл, только если повторов заметное количество
+        if (o.dedup()) {
+            long t0 = System.nanoTime();
+            boolean cached = true;
+            PointDeduplicator.Dedup dedup = cachedDedup(datasetId, scaling, points);
+            if (dedup == null) {
+                dedup = PointDeduplicator.dedup(points);
+                cacheDedup(datasetId, scaling, points, dedup);
+                cached = false;
+            }
+            double ms = cached ? 0.0 : (System.nanoTime() - t0) / 1_000_000.0;
+            progress.accept(String.format("Dedup: %,d -> %,d unique (x%.2f)%s", points.size(), dedup.size(),
+                    dedup.compressionRatio(), cached ? " (cached)" : String.format(" in %.1f ms", ms)));
+
+            // имеет смысл, только если повторов заметное количество
+            if (dedup.size() >= o.k() && dedup.size() < points.size()) {
+                return new Prepared(newSession(dedup.unique(), dedup.weights(), o, init, progress),
+                        "DEDUP", null, dedup, ms);
+            }
+        }
+
+        String engine = init == null ? "PLAIN" : o.reduction() == ReductionMode.PCA ? "PCA" : "RANDOM_PROJ";
+        return new Prepared(newSession(points, null, o, init, progress), engine, null);
+    }
+
+    private record DedupEntry(long datasetId, ScalingMode scaling, List<PointVector> points,
+                              PointDeduplicator.Dedup dedup) {}
+
+    private synchronized PointDeduplicator.Dedup cachedDedup(long datasetId, ScalingMode scaling,
+                                                             List<PointVector> points) {
+        DedupEntry e = lastDedup;
+        return (e != null && e.datasetId() == datasetId && e.scaling() == scaling && e.points() == points)
+                ? e.dedup() : null;
+    }
+
+    private synchronized void cacheDedup(long datasetId, ScalingMode scaling, List<PointVector> points,
+                                         PointDeduplicator.Dedup dedup) {
+        lastDedup = new DedupEntry(datasetId, scaling, points, dedup);
+    }
+
+    // Проекция хранится per dataset (+scaling); RANDOM детерминирована от SESSION_SEED
+    public Projection projectionFor(long datasetId, ScalingMode scaling, ReductionMode kind, int r,
+                                    List<PointVector> points, int threads) {
+        Projection proj = projectionRepo.find(datasetId, scaling, kind, r);
+        if (proj != null && proj.inputDim() == points.get(0).x().length) return proj;
+
+        proj = (kind == ReductionMode.PCA)
+                ? Projection.pca(points, r, threads)
+                : Projection.random(points.get(0).x().length, r, SESSION_SEED);
+        projectionRepo.save(datasetId, scaling, proj);
+        return proj;
+    }
+
+    private KMeansSession newSession(List<PointVector> points, double[] weights,
+                                     Options o, double[][] init, Consumer<String> progress) {
+        int threads = o.threads();
+        int bucket = sizeBucket(points.size());
+        boolean tune = false;
+        if (threads == AUTO_THREADS) {
+            threads = tuningRepo.findThreads(machineKey(), bucket);
+            if (threads > 0) {
+                progress.accept("Threads: auto -> " + threads + " (remembered for ~2^" + bucket + " points)");
+            } else {
+                threads = CORES;
+                tune = true;
+            }
+        }
+
+        KMeansSession s = (init != null)
+                ? new KMeansSession(points, weights, init, o.maxIter(), o.eps(), SESSION_SEED, threads)
+                : new KMeansSession(points, weights, o.k(), o.maxIter(), o.eps(), SESSION_SEED, threads);
+
+        if (tune) {
+            s.enableAutoThreads(CORES, (best, assignMs) -> {
+                progress.accept(String.format("Threads: auto -> %d (assign %.2f ms)", best, assignMs));
+                try {
+                    tuningRepo.save(machineKey(), bucket, best, assignMs);
+                } catch (Exception e) {
+                    e.printStackTrace(); // не запомнили — подберём в следующий раз
+                }
+            });
+        }
+        return s;
+    }
+
+    // Старт с центроидов и разметки последнего прогона: старые точки сохраняют кластер,
+    // дописанные (idx >= прошлого n) назначаются ближайшему центроиду, затем обычные итерации.
+    // Coreset / dedup / проекция здесь не нужны — начальное приближение уже почти сошлось
+    private KMeansSession resume(Options o, long datasetId, ScalingMode scaling,
+                                 List<PointVector> points, Consumer<String> progress) {
+        long runId = runRepo.findResumeRun(datasetId, scaling, o.k());
+        if (runId < 0) return null;
+
+        ResultRepository.RunResult prev = resultRepo.loadResult(runId);
+        if (prev == null || prev.assignment().length > points.size()
+                || prev.centroids()[0].length != points.get(0).x().length) {
+            return null;
+        }
+
+        int m = prev.assignment().length;
+        int threads = o.threads() > 0 ? o.threads() : CORES;
+        KMeansSession s = new KMeansSession(points, prev.centroids(), prev.assignment(),
+                o.maxIter(), o.eps(), SESSION_SEED, threads);
+        progress.accept("Incremental: run #" + runId + ", " + m + " old + " + (points.size() - m) + " new points");
+        return s;
+    }
+
+    // порядок размера: выигрыш от потоков меняется с n, а не с конкретным датасетом
+    static int sizeBucket(int n) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(1, n));
+    }
+
+    // хост + ядра + архитектура: база может лежать в общем home на разных машинах
+    static String machineKey() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = java.net.InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "unknown";
+            }
+        }
+        return host + "/" + CORES + "cpu/" + System.getProperty("os.arch");
+    }
+
+    // Кластеризуем до сходимости в пространстве проекции, затем переводим разметку
+    // в центроиды полного пространства — основная сессия только уточняет их
+    private double[][] reducedSpaceCentroids(Options o, long datasetId, ScalingMode scaling,
+                                             List<PointVector> points, Consumer<String> progress) {
+        if (o.reduction() == ReductionMode.NONE) return null;
+
+        int d = points.get(0).x().length;
+        int r = Math.min(o.reducedDim(), d);
+        if (r >= d) return null;
+
+        Projection proj = projectionFor(datasetId, scaling, o.reduction(), r, points, o.workThreads());
+        List<PointVector> reduced = proj.project(points, o.workThreads());
+
+        long t0 = System.nanoTime();
+        IterationSnapshot last;
+        try (KMeansSession pre = new KMeansSession(reduced, o.k(), o.maxIter(), o.eps(), SESSION_SEED, o.workThreads())) {
+            do {
+                last = pre.step();
+            } while (last.stopReason() == null);
+        }
+        double ms = (System.nanoTime() - t0) / 1_000_000.0;
+
+        progress.accept(String.format("%s d=%d -> %d: %d iters, %.1f ms; refining in full space",
+                o.reduction(), d, r, last.iter(), ms));
+
+        return CentroidAssigner.meansOf(points, last.assignment(), o.k());
+    }
+}
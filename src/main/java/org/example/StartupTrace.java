@@ -0,0 +1,48 @@
+package org.example;
+
+import org.example.metrics.MetricsRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Вехи запуска UI в мс от старта JVM (uptime — включая запуск JavaFX):
+//   FIRST_FRAME   — первый layout-pulse показанного окна
+//   DB_READY      — Database.init (миграции) завершён
+//   DATASETS      — список датасетов на экране
+//   FIRST_DATASET — точки первого выбранного датасета на графике
+// Экспортируются gauge'ами rosl_startup_<веха>_ms (-1 — ещё не было); сводка (toString) — в статус-баре.
+final class StartupTrace {
+
+    enum Mark { FIRST_FRAME, DB_READY, DATASETS, FIRST_DATASET }
+
+    private final long[] ms = new long[Mark.values().length];
+
+    StartupTrace() {
+        Arrays.fill(ms, -1);
+        for (Mark m : Mark.values()) {
+            MetricsRegistry.global().registerGauge(
+                    "rosl_startup_" + m.name().toLowerCase(Locale.ROOT) + "_ms", () -> get(m));
+        }
+    }
+
+    // true — веха отмечена впервые
+    synchronized boolean mark(Mark m) {
+        if (ms[m.ordinal()] >= 0) return false;
+        ms[m.ordinal()] = ManagementFactory.getRuntimeMXBean().getUptime();
+        return true;
+    }
+
+    synchronized long get(Mark m) { return ms[m.ordinal()]; }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Mark m : Mark.values()) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(m.name().toLowerCase(Locale.ROOT)).append('=')
+                    .append(ms[m.ordinal()] < 0 ? "-" : ms[m.ordinal()] + " ms");
+        }
+        return sb.toString();
+    }
+}
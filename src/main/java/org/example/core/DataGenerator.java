@@ -2,60 +2,223 @@ package org.example.core;
 
 import org.example.model.Feature;
 import org.example.model.PointVector;
+import org.example.model.WorkloadPreset;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 public final class DataGenerator {
     private DataGenerator() {}
 
-    // Порядок признаков ОЖИДАЕТСЯ такой:
+    // SOCIAL: порядок признаков ОЖИДАЕТСЯ такой:
     // 0..4   -> likes:    sport, music, games, films, memes
     // 5..9   -> comments: sport, music, games, films, memes
     // 10..14 -> posts:    sport, music, games, films, memes
     private static final int TOPICS = 5;
 
-    public static List<PointVector> generate(int n, long seed, int trueClusters, double noiseSigma) {
-        int d = Feature.count();
-        if (d != TOPICS * 3) {
-            throw new IllegalStateException("Feature.count() должен быть 15 (5 тем * 3 метрики). Сейчас: " + d);
+    // Остальные пресеты — гауссовы облака в R^d со стандартным отклонением BLOB_SCALE * sigma
+    private static final double BLOB_SCALE = 100.0;
+
+    // Точки генерируются чанками по CHUNK; у чанка свой SplittableRandom от (seed, номер чанка),
+    // поэтому датасет для seed одинаков при любом числе потоков и любом порядке чанков
+    public static final int CHUNK = 65_536;
+
+    // Версия алгоритма генерации: входит в хэш параметров, при изменении потока точек — увеличить
+    static final int GEN_VERSION = 2;
+
+    // Параметры генерации; sigma — относительный шум (SOCIAL) или масштаб облака (остальные)
+    public record Spec(WorkloadPreset preset, int d, int clusters, double sigma,
+                       double imbalance, double outliers, double overlap) {
+
+        // Ключ датасета в DATASETS.CONTENT_HASH: одинаковые параметры => одинаковые точки
+        public String contentHash(int n, long seed) {
+            String key = "v" + GEN_VERSION + "|" + preset + "|n=" + n + "|seed=" + seed + "|d=" + d
+                    + "|k=" + clusters + "|sigma=" + sigma + "|imb=" + imbalance
+                    + "|out=" + outliers + "|ovl=" + overlap;
+            return "gen:" + sha256(key.getBytes(StandardCharsets.UTF_8));
         }
 
-        Random rnd = new Random(seed);
+        // d / clusters <= 0 — значения пресета
+        public static Spec of(WorkloadPreset preset, int d, int clusters, double sigma) {
+            return new Spec(preset,
+                    preset.fixedDim() || d <= 0 ? preset.d : d,
+                    clusters > 0 ? clusters : preset.clusters,
+                    sigma, preset.imbalance, preset.outliers, preset.overlap);
+        }
+    }
 
-        double[][] meanLikes = new double[trueClusters][TOPICS];
-        double[][] meanComments = new double[trueClusters][TOPICS];
-        double[][] meanPosts = new double[trueClusters][TOPICS];
+    // Центры кластеров (из seed) + параметры шума; чанки строятся независимо друг от друга
+    public static final class Model {
+        private final int n;
+        private final long seed;
+        private final Spec spec;
+        private final int d;
 
-        for (int k = 0; k < trueClusters; k++) {
-            int fav1 = rnd.nextInt(TOPICS);
-            int fav2 = rnd.nextInt(TOPICS - 1);
-            if (fav2 >= fav1) fav2++; // гарантируем fav2 != fav1
+        // SOCIAL
+        private double[][] meanLikes;
+        private double[][] meanComments;
+        private double[][] meanPosts;
 
-            for (int t = 0; t < TOPICS; t++) {
-                boolean fav = (t == fav1 || t == fav2);
+        // облака
+        private double[][] centers;
+        private double blobSigma;
+
+        private final double[] clusterCdf; // null => кластеры равновероятны
+        private final double[] outLo;      // область выбросов
+        private final double[] outHi;
+
+        private Model(int n, long seed, Spec spec) {
+            this.n = n;
+            this.seed = seed;
+            this.spec = spec;
+            this.d = spec.d();
+
+            Random rnd = new Random(seed);
+            if (spec.preset() == WorkloadPreset.SOCIAL) initSocial(rnd);
+            else initBlobs(rnd);
+
+            clusterCdf = spec.imbalance() > 0 ? zipfCdf(spec.clusters(), spec.imbalance()) : null;
+
+            outLo = new double[d];
+            outHi = new double[d];
+            if (spec.outliers() > 0) outlierBox();
+        }
+
+        private void initSocial(Random rnd) {
+            int trueClusters = spec.clusters();
+            meanLikes = new double[trueClusters][TOPICS];
+            meanComments = new double[trueClusters][TOPICS];
+            meanPosts = new double[trueClusters][TOPICS];
+
+            for (int k = 0; k < trueClusters; k++) {
+                int fav1 = rnd.nextInt(TOPICS);
+                int fav2 = rnd.nextInt(TOPICS - 1);
+                if (fav2 >= fav1) fav2++; // гарантируем fav2 != fav1
+
+                for (int t = 0; t < TOPICS; t++) {
+                    boolean fav = (t == fav1 || t == fav2);
+
+                    double likesMean = fav
+                            ? (200 + rnd.nextDouble() * 400)   // 200..600
+                            : (20 + rnd.nextDouble() * 180);   // 20..200
+
+                    double commentsMean = likesMean * (0.06 + rnd.nextDouble() * 0.18); // ~6%..24%
+
+                    double postsMean = Math.max(0.0, likesMean / 30.0 + rnd.nextDouble() * 4.0); // примерно 0..24
+
+                    meanLikes[k][t] = likesMean;
+                    meanComments[k][t] = commentsMean;
+                    meanPosts[k][t] = postsMean;
+                }
+            }
+        }
+
+        // Центры равномерно в кубе, затем растягиваем так, чтобы ближайшая пара была
+        // на расстоянии (1 - overlap) * 8 sigma
+        private void initBlobs(Random rnd) {
+            int k = spec.clusters();
+            blobSigma = BLOB_SCALE * spec.sigma();
+            centers = new double[k][d];
+            for (double[] c : centers) for (int j = 0; j < d; j++) c[j] = rnd.nextDouble();
+
+            double minDist = Double.POSITIVE_INFINITY;
+            for (int a = 0; a < k; a++) {
+                for (int b = a + 1; b < k; b++) {
+                    double s = 0;
+                    for (int j = 0; j < d; j++) {
+                        double diff = centers[a][j] - centers[b][j];
+                        s += diff * diff;
+                    }
+                    minDist = Math.min(minDist, Math.sqrt(s));
+                }
+            }
+            double target = Math.max(0.05, 1.0 - spec.overlap()) * 8.0 * blobSigma;
+            double factor = (k > 1 && minDist > 0) ? target / minDist : target;
+            for (double[] c : centers) for (int j = 0; j < d; j++) c[j] *= factor;
+        }
+
+        private void outlierBox() {
+            if (centers == null) {
+                // счётчики: от 0 до двойного максимального среднего
+                for (int t = 0; t < TOPICS; t++) {
+                    for (int k = 0; k < spec.clusters(); k++) {
+                        outHi[t] = Math.max(outHi[t], 2 * meanLikes[k][t]);
+                        outHi[TOPICS + t] = Math.max(outHi[TOPICS + t], 2 * meanComments[k][t]);
+                        outHi[2 * TOPICS + t] = Math.max(outHi[2 * TOPICS + t], 2 * meanPosts[k][t]);
+                    }
+                }
+                return;
+            }
+            Arrays.fill(outLo, Double.POSITIVE_INFINITY);
+            Arrays.fill(outHi, Double.NEGATIVE_INFINITY);
+            for (double[] c : centers) {
+                for (int j = 0; j < d; j++) {
+                    outLo[j] = Math.min(outLo[j], c[j] - 4 * blobSigma);
+                    outHi[j] = Math.max(outHi[j], c[j] + 4 * blobSigma);
+                }
+            }
+        }
+
+        public int n() { return n; }
 
-                double likesMean = fav
-                        ? (200 + rnd.nextDouble() * 400)   // 200..600
-                        : (20 + rnd.nextDouble() * 180);   // 20..200
+        public int dim() { return d; }
 
-                double commentsMean = likesMean * (0.06 + rnd.nextDouble() * 0.18); // ~6%..24%
+        public int chunks() { return (n + CHUNK - 1) / CHUNK; }
 
-                double postsMean = Math.max(0.0, likesMean / 30.0 + rnd.nextDouble() * 4.0); // примерно 0..24
+        // Точки [c*CHUNK, min(n, (c+1)*CHUNK)) с idx = глобальная позиция
+        public List<PointVector> chunk(int c) {
+            int start = c * CHUNK;
+            int end = Math.min(n, start + CHUNK);
+            PointVector[] out = new PointVector[end - start];
+            fill(c, out, 0);
+            return Arrays.asList(out);
+        }
 
-                meanLikes[k][t] = likesMean;
-                meanComments[k][t] = commentsMean;
-                meanPosts[k][t] = postsMean;
+        // Точки [from, to): хвост модели на n + m точек — продолжение датасета из первых n
+        // (те же центры, потоки чанков не зависят от n), для дозаписи в существующий датасет
+        public List<PointVector> range(int from, int to) {
+            List<PointVector> out = new ArrayList<>(to - from);
+            for (int c = from / CHUNK; c * CHUNK < to; c++) {
+                List<PointVector> chunk = chunk(c);
+                int start = c * CHUNK;
+                out.addAll(chunk.subList(Math.max(0, from - start), Math.min(chunk.size(), to - start)));
             }
+            return out;
         }
 
-        List<PointVector> out = new ArrayList<>(n);
-        for (int i = 0; i < n; i++) {
-            int k = rnd.nextInt(trueClusters);
+        private void fill(int c, PointVector[] out, int offset) {
+            int start = c * CHUNK;
+            int end = Math.min(n, start + CHUNK);
+            RandomGenerator rnd = new SplittableRandom(chunkSeed(seed, c));
+
+            for (int i = start; i < end; i++) {
+                int k = clusterCdf == null ? rnd.nextInt(spec.clusters()) : pick(clusterCdf, rnd.nextDouble());
 
-            double[] x = new double[d];
+                double[] x = new double[d];
+                if (spec.outliers() > 0 && rnd.nextDouble() < spec.outliers()) {
+                    for (int j = 0; j < d; j++) x[j] = outLo[j] + rnd.nextDouble() * (outHi[j] - outLo[j]);
+                    if (centers == null) for (int j = 0; j < d; j++) x[j] = Math.rint(x[j]);
+                } else if (centers == null) {
+                    socialPoint(k, x, rnd);
+                } else {
+                    double[] m = centers[k];
+                    for (int j = 0; j < d; j++) x[j] = m[j] + rnd.nextGaussian() * blobSigma;
+                }
 
+                out[offset + i - start] = new PointVector(i, x);
+            }
+        }
+
+        private void socialPoint(int k, double[] x, RandomGenerator rnd) {
+            double noiseSigma = spec.sigma();
             for (int t = 0; t < TOPICS; t++) {
                 double likes = sampleNonNegativeInt(meanLikes[k][t], noiseSigma, rnd);
                 double comments = sampleNonNegativeInt(meanComments[k][t], noiseSigma, rnd);
@@ -66,14 +229,80 @@ public final class DataGenerator {
                 x[TOPICS + t] = comments;
                 x[2 * TOPICS + t] = posts;
             }
+        }
+    }
+
+    public static Model model(int n, long seed, int trueClusters, double noiseSigma) {
+        return model(n, seed, Spec.of(WorkloadPreset.SOCIAL, 0, trueClusters, noiseSigma));
+    }
+
+    public static Model model(int n, long seed, Spec spec) {
+        if (spec.preset() == WorkloadPreset.SOCIAL && Feature.count() != TOPICS * 3) {
+            throw new IllegalStateException("Feature.count() должен быть 15 (5 тем * 3 метрики). Сейчас: "
+                    + Feature.count());
+        }
+        if (spec.d() <= 0) throw new IllegalArgumentException("d must be > 0");
+        if (spec.clusters() <= 0) throw new IllegalArgumentException("clusters must be > 0");
+        return new Model(n, seed, spec);
+    }
+
+    public static List<PointVector> generate(int n, long seed, int trueClusters, double noiseSigma) {
+        return generate(n, seed, trueClusters, noiseSigma, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static List<PointVector> generate(int n, long seed, int trueClusters, double noiseSigma, int threads) {
+        return generate(n, seed, Spec.of(WorkloadPreset.SOCIAL, 0, trueClusters, noiseSigma), threads);
+    }
 
-            out.add(new PointVector(i, x));
+    public static List<PointVector> generate(int n, long seed, Spec spec, int threads) {
+        Model m = model(n, seed, spec);
+
+        PointVector[] out = new PointVector[n];
+        ParallelChunks.map(m.chunks(), threads, "data-gen", (from, to) -> {
+            for (int c = from; c < to; c++) m.fill(c, out, c * CHUNK);
+            return null;
+        });
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    // SplitMix64-финализатор над (seed, chunk): соседние чанки получают несвязанные потоки
+    static long chunkSeed(long seed, int chunk) {
+        return mix64(seed ^ mix64(0x9E3779B97F4A7C15L * (chunk + 1L)));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
+    }
+
+    // P(кластер k) ~ 1 / (k+1)^s
+    private static double[] zipfCdf(int k, double s) {
+        double[] cdf = new double[k];
+        double sum = 0;
+        for (int i = 0; i < k; i++) {
+            sum += 1.0 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < k; i++) cdf[i] /= sum;
+        return cdf;
+    }
 
-        return out;
+    private static int pick(double[] cdf, double u) {
+        int i = Arrays.binarySearch(cdf, u);
+        if (i < 0) i = -i - 1;
+        return Math.min(i, cdf.length - 1);
     }
 
-    private static double sampleNonNegativeInt(double mean, double relSigma, Random rnd) {
+    private static double sampleNonNegativeInt(double mean, double relSigma, RandomGenerator rnd) {
         double v = mean + rnd.nextGaussian() * (relSigma * Math.max(mean, 1.0));
         if (v < 0) v = 0;
         return Math.rint(v);
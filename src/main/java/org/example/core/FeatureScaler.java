@@ -0,0 +1,133 @@
+package org.example.core;
+
+import org.example.model.PointVector;
+import org.example.model.ScalingMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Масштабирование признаков: likes на порядок больше comments/posts и иначе доминируют в dist2.
+// Статистики считаются один раз (параллельно) и хранятся вместе с датасетом.
+public final class FeatureScaler {
+    private FeatureScaler() {}
+
+    public record Stats(long count, double[] min, double[] max, double[] mean, double[] std) {
+        public int dim() { return mean.length; }
+    }
+
+    // Накопитель min/max/sum/sum of squares: по чанку в computeStats и при потоковой записи датасета
+    public static final class Accumulator {
+        private final double[] lo;
+        private final double[] hi;
+        private final double[] sum;
+        private final double[] sq;
+        private long count = 0;
+
+        public Accumulator(int d) {
+            lo = new double[d];
+            hi = new double[d];
+            sum = new double[d];
+            sq = new double[d];
+            Arrays.fill(lo, Double.POSITIVE_INFINITY);
+            Arrays.fill(hi, Double.NEGATIVE_INFINITY);
+        }
+
+        public void add(double[] x) {
+            for (int j = 0; j < lo.length; j++) {
+                double v = x[j];
+                if (v < lo[j]) lo[j] = v;
+                if (v > hi[j]) hi[j] = v;
+                sum[j] += v;
+                sq[j] += v * v;
+            }
+            count++;
+        }
+
+        // Восстановление из сохранённых статистик (дозапись точек в датасет)
+        public static Accumulator of(Stats st) {
+            Accumulator acc = new Accumulator(st.dim());
+            for (int j = 0; j < st.dim(); j++) {
+                acc.lo[j] = st.min()[j];
+                acc.hi[j] = st.max()[j];
+                acc.sum[j] = st.mean()[j] * st.count();
+                acc.sq[j] = (st.std()[j] * st.std()[j] + st.mean()[j] * st.mean()[j]) * st.count();
+            }
+            acc.count = st.count();
+            return acc;
+        }
+
+        public void merge(Accumulator o) {
+            for (int j = 0; j < lo.length; j++) {
+                lo[j] = Math.min(lo[j], o.lo[j]);
+                hi[j] = Math.max(hi[j], o.hi[j]);
+                sum[j] += o.sum[j];
+                sq[j] += o.sq[j];
+            }
+            count += o.count;
+        }
+
+        public long count() { return count; }
+
+        public Stats toStats() {
+            if (count == 0) throw new IllegalStateException("no points accumulated");
+            int d = lo.length;
+            double[] mean = new double[d];
+            double[] std = new double[d];
+            for (int j = 0; j < d; j++) {
+                mean[j] = sum[j] / count;
+                double var = sq[j] / count - mean[j] * mean[j];
+                std[j] = Math.sqrt(Math.max(0.0, var));
+            }
+            return new Stats(count, lo.clone(), hi.clone(), mean, std);
+        }
+    }
+
+    public static Stats computeStats(List<PointVector> points, int threads) {
+        if (points.isEmpty()) throw new IllegalArgumentException("points empty");
+        int d = points.get(0).x().length;
+
+        List<Accumulator> parts = ParallelChunks.map(points.size(), threads, "feature-stats", (start, end) -> {
+            Accumulator acc = new Accumulator(d);
+            for (int i = start; i < end; i++) acc.add(points.get(i).x());
+            return acc;
+        });
+
+        Accumulator total = new Accumulator(d);
+        for (Accumulator p : parts) total.merge(p);
+        return total.toStats();
+    }
+
+    // Возвращает новый список; исходные векторы не меняются
+    public static List<PointVector> apply(List<PointVector> points, ScalingMode mode, Stats stats, int threads) {
+        if (mode == null || mode == ScalingMode.NONE || points.isEmpty()) return points;
+
+        int n = points.size();
+        PointVector[] out = new PointVector[n];
+        ParallelChunks.map(n, threads, "feature-scale", (start, end) -> {
+            for (int i = start; i < end; i++) {
+                PointVector p = points.get(i);
+                out[i] = new PointVector(p.idx(), transform(p.x(), mode, stats));
+            }
+            return null;
+        });
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    private static double[] transform(double[] x, ScalingMode mode, Stats s) {
+        double[] y = new double[x.length];
+        for (int j = 0; j < x.length; j++) {
+            double v = x[j];
+            y[j] = switch (mode) {
+                case ZSCORE -> s.std()[j] > 0 ? (v - s.mean()[j]) / s.std()[j] : 0.0;
+                case MINMAX -> {
+                    double range = s.max()[j] - s.min()[j];
+                    yield range > 0 ? (v - s.min()[j]) / range : 0.0;
+                }
+                case LOG1P -> Math.log1p(Math.max(0.0, v));
+                case NONE -> v;
+            };
+        }
+        return y;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Делит диапазон [0, n) на равные куски и обрабатывает их на временном пуле.
+// Для одноразовых проходов по датасету (статистики, coreset, финальное назначение).
+public final class ParallelChunks {
+    private ParallelChunks() {}
+
+    @FunctionalInterface
+    public interface ChunkTask<T> {
+        T run(int start, int end) throws Exception;
+    }
+
+    // Результаты возвращаются в порядке чанков
+    public static <T> List<T> map(int n, int threads, String threadName, ChunkTask<T> task) {
+        int t = Math.max(1, Math.min(threads, n));
+        List<T> out = new ArrayList<>(t);
+        if (n <= 0) return out;
+
+        int chunkSize = (n + t - 1) / t;
+
+        if (t == 1) {
+            try {
+                out.add(task.run(0, n));
+                return out;
+            } catch (RuntimeException re) {
+                throw re;
+            } catch (Exception e) {
+                throw new RuntimeException(threadName + " failed", e);
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(t, r -> {
+            Thread th = new Thread(r, threadName);
+            th.setDaemon(true);
+            return th;
+        });
+        try {
+            List<Callable<T>> tasks = new ArrayList<>(t);
+            for (int part = 0; part < t; part++) {
+                final int start = part * chunkSize;
+                final int end = Math.min(n, start + chunkSize);
+                if (start >= end) continue;
+                tasks.add(() -> task.run(start, end));
+            }
+            for (Future<T> f : pool.invokeAll(tasks)) out.add(f.get());
+            return out;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(threadName + " interrupted", ie);
+        } catch (ExecutionException ee) {
+            throw new RuntimeException(threadName + " failed", ee.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.core;
+
+import org.example.model.PointVector;
+import org.example.model.ReductionMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Линейная проекция x -> W * (x - mean), W: [r][d].
+// RANDOM — гауссова случайная проекция (Johnson–Lindenstrauss), PCA — главные компоненты.
+public record Projection(ReductionMode kind, double[] mean, double[][] matrix) {
+
+    public int inputDim() { return mean.length; }
+    public int outputDim() { return matrix.length; }
+
+    public double[] project(double[] x) {
+        double[] y = new double[matrix.length];
+        for (int r = 0; r < matrix.length; r++) {
+            double[] w = matrix[r];
+            double s = 0.0;
+            for (int j = 0; j < w.length; j++) s += w[j] * (x[j] - mean[j]);
+            y[r] = s;
+        }
+        return y;
+    }
+
+    public List<PointVector> project(List<PointVector> points, int threads) {
+        int n = points.size();
+        PointVector[] out = new PointVector[n];
+        ParallelChunks.map(n, threads, "projection", (start, end) -> {
+            for (int i = start; i < end; i++) {
+                PointVector p = points.get(i);
+                out[i] = new PointVector(p.idx(), project(p.x()));
+            }
+            return null;
+        });
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    public static Projection random(int d, int r, long seed) {
+        Random rnd = new Random(seed);
+        double scale = 1.0 / Math.sqrt(r);
+        double[][] w = new double[r][d];
+        for (int i = 0; i < r; i++) {
+            for (int j = 0; j < d; j++) w[i][j] = rnd.nextGaussian() * scale;
+        }
+        // случайная проекция не центрирует: mean = 0
+        return new Projection(ReductionMode.RANDOM, new double[d], w);
+    }
+
+    public static Projection pca(List<PointVector> points, int r, int threads) {
+        if (points.isEmpty()) throw new IllegalArgumentException("points empty");
+        int n = points.size();
+        int d = points.get(0).x().length;
+        if (r <= 0 || r > d) throw new IllegalArgumentException("PCA dim must be in 1.." + d);
+
+        // среднее и ковариация — по чанкам, затем сумма
+        double[] mean = new double[d];
+        for (double[] s : ParallelChunks.map(n, threads, "pca-mean", (start, end) -> {
+            double[] sum = new double[d];
+            for (int i = start; i < end; i++) {
+                double[] x = points.get(i).x();
+                for (int j = 0; j < d; j++) sum[j] += x[j];
+            }
+            return sum;
+        })) {
+            for (int j = 0; j < d; j++) mean[j] += s[j];
+        }
+        for (int j = 0; j < d; j++) mean[j] /= n;
+
+        double[][] cov = new double[d][d];
+        for (double[][] part : ParallelChunks.map(n, threads, "pca-cov", (start, end) -> {
+            double[][] c = new double[d][d];
+            double[] dx = new double[d];
+            for (int i = start; i < end; i++) {
+                double[] x = points.get(i).x();
+                for (int j = 0; j < d; j++) dx[j] = x[j] - mean[j];
+                for (int a = 0; a < d; a++) {
+                    double va = dx[a];
+                    for (int b = a; b < d; b++) c[a][b] += va * dx[b];
+                }
+            }
+            return c;
+        })) {
+            for (int a = 0; a < d; a++) {
+                for (int b = a; b < d; b++) cov[a][b] += part[a][b];
+            }
+        }
+        for (int a = 0; a < d; a++) {
+            for (int b = a; b < d; b++) {
+                cov[a][b] /= Math.max(1, n - 1);
+                cov[b][a] = cov[a][b];
+            }
+        }
+
+        double[][] vecs = new double[d][d];
+        double[] vals = jacobiEigen(cov, vecs);
+
+        Integer[] order = new Integer[d];
+        for (int j = 0; j < d; j++) order[j] = j;
+        Arrays.sort(order, (a, b) -> Double.compare(vals[b], vals[a]));
+
+        double[][] w = new double[r][d];
+        for (int i = 0; i < r; i++) {
+            int col = order[i];
+            for (int j = 0; j < d; j++) w[i][j] = vecs[j][col];
+        }
+        return new Projection(ReductionMode.PCA, mean, w);
+    }
+
+    // Собственные значения симметричной матрицы (метод Якоби); a портится, векторы — столбцы v
+    private static double[] jacobiEigen(double[][] a, double[][] v) {
+        int d = a.length;
+        for (int i = 0; i < d; i++) {
+            Arrays.fill(v[i], 0.0);
+            v[i][i] = 1.0;
+        }
+
+        for (int sweep = 0; sweep < 100; sweep++) {
+            double off = 0.0;
+            for (int p = 0; p < d; p++) {
+                for (int q = p + 1; q < d; q++) off += a[p][q] * a[p][q];
+            }
+            if (off < 1e-22) break;
+
+            for (int p = 0; p < d; p++) {
+                for (int q = p + 1; q < d; q++) {
+                    if (Math.abs(a[p][q]) < 1e-300) continue;
+
+                    double theta = (a[q][q] - a[p][p]) / (2.0 * a[p][q]);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1.0));
+                    if (theta == 0.0) t = 1.0;
+                    double c = 1.0 / Math.sqrt(t * t + 1.0);
+                    double s = t * c;
+
+                    for (int k = 0; k < d; k++) {
+                        double akp = a[k][p];
+                        double akq = a[k][q];
+                        a[k][p] = c * akp - s * akq;
+                        a[k][q] = s * akp + c * akq;
+                    }
+                    for (int k = 0; k < d; k++) {
+                        double apk = a[p][k];
+                        double aqk = a[q][k];
+                        a[p][k] = c * apk - s * aqk;
+                        a[q][k] = s * apk + c * aqk;
+                    }
+                    for (int k = 0; k < d; k++) {
+                        double vkp = v[k][p];
+                        double vkq = v[k][q];
+                        v[k][p] = c * vkp - s * vkq;
+                        v[k][q] = s * vkp + c * vkq;
+                    }
+                }
+            }
+        }
+
+        double[] vals = new double[d];
+        for (int i = 0; i < d; i++) vals[i] = a[i][i];
+        return vals;
+    }
+}
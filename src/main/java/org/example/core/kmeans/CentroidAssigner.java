@@ -0,0 +1,59 @@
+package org.example.core.kmeans;
+
+import org.example.core.ParallelChunks;
+import org.example.model.PointVector;
+
+import java.util.List;
+
+// Финальный проход: каждой точке полного датасета — ближайший центроид.
+// Нужен, когда сама кластеризация шла по уменьшенному набору (coreset).
+public final class CentroidAssigner {
+    private CentroidAssigner() {}
+
+    public static int[] assign(List<PointVector> points, double[][] centroids, int threads) {
+        int[] out = new int[points.size()];
+        ParallelChunks.map(points.size(), threads, "kmeans-final-assign", (start, end) -> {
+            assignRange(points, centroids, out, start, end);
+            return null;
+        });
+        return out;
+    }
+
+    // Центроиды (средние) по готовой разметке; пустой кластер получает произвольную точку
+    public static double[][] meansOf(List<PointVector> points, int[] assignment, int k) {
+        int d = points.get(0).x().length;
+        double[][] sum = new double[k][d];
+        int[] cnt = new int[k];
+        for (int i = 0; i < points.size(); i++) {
+            int cl = assignment[i];
+            if (cl < 0 || cl >= k) continue;
+            double[] x = points.get(i).x();
+            cnt[cl]++;
+            for (int j = 0; j < d; j++) sum[cl][j] += x[j];
+        }
+        for (int cl = 0; cl < k; cl++) {
+            if (cnt[cl] == 0) {
+                sum[cl] = points.get((int) ((long) cl * points.size() / k)).x().clone();
+                continue;
+            }
+            for (int j = 0; j < d; j++) sum[cl][j] /= cnt[cl];
+        }
+        return sum;
+    }
+
+    private static void assignRange(List<PointVector> points, double[][] c, int[] out, int start, int end) {
+        for (int i = start; i < end; i++) {
+            double[] x = points.get(i).x();
+            int bestK = 0;
+            double bestDist = KMeansSession.dist2(x, c[0]);
+            for (int kk = 1; kk < c.length; kk++) {
+                double d2 = KMeansSession.dist2(x, c[kk]);
+                if (d2 < bestDist) {
+                    bestDist = d2;
+                    bestK = kk;
+                }
+            }
+            out[i] = bestK;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.core.kmeans;
+
+import org.example.core.ParallelChunks;
+import org.example.model.PointVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Lightweight coreset (sensitivity sampling):
+//   q(x) = 1/(2n) + d(x, mean)^2 / (2 * sum d^2),  вес = 1 / (m * q(x)).
+// Среднее и расстояния считаются параллельно по чанкам, выборка — детерминированно от seed.
+public final class CoresetBuilder {
+    private CoresetBuilder() {}
+
+    // idx — индексы точек исходного датасета (по возрастанию), weights — их веса
+    public record Coreset(int[] idx, double[] weights) {
+        public int size() { return idx.length; }
+
+        public List<PointVector> points(List<PointVector> all) {
+            List<PointVector> out = new ArrayList<>(idx.length);
+            for (int i : idx) out.add(all.get(i));
+            return out;
+        }
+    }
+
+    public static Coreset build(List<PointVector> points, int m, long seed, int threads) {
+        int n = points.size();
+        if (n == 0) throw new IllegalArgumentException("points empty");
+        if (m <= 0) throw new IllegalArgumentException("coreset size must be > 0");
+
+        int d = points.get(0).x().length;
+
+        // 1) среднее
+        double[] mean = new double[d];
+        for (double[] s : ParallelChunks.map(n, threads, "coreset-build", (start, end) -> {
+            double[] sum = new double[d];
+            for (int i = start; i < end; i++) {
+                double[] x = points.get(i).x();
+                for (int j = 0; j < d; j++) sum[j] += x[j];
+            }
+            return sum;
+        })) {
+            for (int j = 0; j < d; j++) mean[j] += s[j];
+        }
+        for (int j = 0; j < d; j++) mean[j] /= n;
+
+        // 2) квадраты расстояний до среднего
+        double[] dist = new double[n];
+        double total = 0.0;
+        for (double s : ParallelChunks.map(n, threads, "coreset-build", (start, end) -> {
+            double sum = 0.0;
+            for (int i = start; i < end; i++) {
+                double d2 = KMeansSession.dist2(points.get(i).x(), mean);
+                dist[i] = d2;
+                sum += d2;
+            }
+            return sum;
+        })) {
+            total += s;
+        }
+
+        // 3) выборка с возвращением по q(x)
+        double[] cdf = new double[n];
+        double acc = 0.0;
+        for (int i = 0; i < n; i++) {
+            double q = 0.5 / n + (total > 0 ? 0.5 * dist[i] / total : 0.5 / n);
+            dist[i] = q;
+            acc += q;
+            cdf[i] = acc;
+        }
+
+        Random rnd = new Random(seed);
+        int[] picked = new int[m];
+        for (int s = 0; s < m; s++) {
+            int pos = Arrays.binarySearch(cdf, rnd.nextDouble() * acc);
+            if (pos < 0) pos = -pos - 1;
+            picked[s] = Math.min(pos, n - 1);
+        }
+        Arrays.sort(picked);
+
+        // повторно выбранные точки схлопываем, суммируя веса
+        int[] idx = new int[m];
+        double[] w = new double[m];
+        int u = 0;
+        for (int s = 0; s < m; s++) {
+            int i = picked[s];
+            double wi = 1.0 / (m * dist[i]);
+            if (u > 0 && idx[u - 1] == i) {
+                w[u - 1] += wi;
+            } else {
+                idx[u] = i;
+                w[u] = wi;
+                u++;
+            }
+        }
+        return new Coreset(Arrays.copyOf(idx, u), Arrays.copyOf(w, u));
+    }
+}
@@ -1,34 +1,97 @@
 package org.example.core.kmeans;
 
+import org.example.metrics.KMeansIterationEvent;
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.SessionMetrics;
 import org.example.model.PointVector;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class KMeansSession implements AutoCloseable {
 
+    // аллокации потока (HotSpot); null — JVM не умеет, тогда alloc = 0
+    private static final com.sun.management.ThreadMXBean ALLOC_MX = allocMx();
+
     private final List<PointVector> points;
+    private final double[] weights; // null => все веса = 1
     private final int n;
     private final int d;
     private final int k;
     private final int maxIter;
     private final double eps;
 
-    private final int threads;
-    private final ExecutorService pool; // null если threads==1
+    private int threads;
+    private ExecutorService pool; // null если threads==1
+    private final AtomicInteger workerNo = new AtomicInteger();
+
+    // авто-подбор потоков на первых итерациях (null — выключен или уже завершён)
+    private ThreadTuner tuner;
+    private TuneListener tuneListener;
+
+    public interface TuneListener {
+        void chosen(int threads, double assignMs);
+    }
 
     private final Random rnd;
+    private final SessionMetrics metrics = new SessionMetrics();
+
+    // per-iteration замеры воркеров assign-фазы (индекс = чанк)
+    private long[] chunkBusyNanos = new long[0];
+    private long[] chunkAllocBytes = new long[0];
+    private String[] chunkWorker = new String[0];
 
     private int iter = 0;
     private final int[] assignment;
     private double[][] centroids;
 
     public KMeansSession(List<PointVector> points, int k, int maxIter, double eps, long seed, int threads) {
+        this(points, null, k, maxIter, eps, seed, threads);
+    }
+
+    // Взвешенный вариант: точка i считается weights[i] раз (coreset / дедупликация)
+    public KMeansSession(List<PointVector> points, double[] weights,
+                         int k, int maxIter, double eps, long seed, int threads) {
+        this(points, weights, k, null, maxIter, eps, seed, threads);
+    }
+
+    // Старт с заданных центроидов (например, найденных в пониженной размерности)
+    public KMeansSession(List<PointVector> points, double[] weights, double[][] initialCentroids,
+                         int maxIter, double eps, long seed, int threads) {
+        this(points, weights, initialCentroids.length, initialCentroids, maxIter, eps, seed, threads);
+    }
+
+    // Продолжение прошлого прогона после дозаписи точек: первые prior.length точек сохраняют
+    // прежнюю разметку, новые [prior.length, n) сразу относятся к ближайшему центроиду;
+    // дальше обычные итерации до сходимости (первая меняет только точки у границ кластеров).
+    // Центроиды пересчитываются средними старых точек по прежней разметке: после дозаписи
+    // меняются статистики scaling, и сохранённые центроиды лежат в прежнем пространстве
+    public KMeansSession(List<PointVector> points, double[][] centroids, int[] priorAssignment,
+                         int maxIter, double eps, long seed, int threads) {
+        this(points, null, centroids.length, centroids, maxIter, eps, seed, threads);
+        int m = priorAssignment.length;
+        if (m > n) throw new IllegalArgumentException("prior assignment longer than points: " + m + " > " + n);
+        System.arraycopy(priorAssignment, 0, assignment, 0, m);
+        this.centroids = CentroidAssigner.meansOf(points.subList(0, m), priorAssignment, k);
+        if (m < n) {
+            int[] added = CentroidAssigner.assign(points.subList(m, n), this.centroids, this.threads);
+            System.arraycopy(added, 0, assignment, m, added.length);
+        }
+    }
+
+    private KMeansSession(List<PointVector> points, double[] weights, int k, double[][] initialCentroids,
+                          int maxIter, double eps, long seed, int threads) {
         if (points == null || points.isEmpty()) throw new IllegalArgumentException("points empty");
+        if (weights != null && weights.length != points.size()) {
+            throw new IllegalArgumentException("weights.length != points.size");
+        }
         this.points = points;
+        this.weights = weights;
         this.n = points.size();
         this.d = points.get(0).x().length;
         this.k = k;
@@ -36,24 +99,48 @@ public final class KMeansSession implements AutoCloseable {
         this.eps = eps;
 
         this.threads = Math.max(1, threads);
-        this.pool = (this.threads > 1)
-                ? Executors.newFixedThreadPool(this.threads, r -> {
-            Thread t = new Thread(r, "kmeans-assign");
-            t.setDaemon(true);
-            return t;
-        })
-                : null;
+        this.pool = newPool(this.threads);
 
         this.rnd = new Random(seed);
 
         this.assignment = new int[n];
         Arrays.fill(this.assignment, -1);
-        this.centroids = initRandomCentroids();
+        this.centroids = (initialCentroids != null) ? deepCopy(initialCentroids) : initRandomCentroids();
     }
 
     public int getIter() { return iter; }
+    public int getThreads() { return threads; }
+    public boolean isWeighted() { return weights != null; }
     public int[] getAssignment() { return assignment; }
     public double[][] getCentroids() { return centroids; }
+    public SessionMetrics metrics() { return metrics; }
+
+    // Следующие итерации идут при 1, 2, 4, ... , maxThreads потоках; затем сессия
+    // остаётся на самом быстром варианте и сообщает его listener'у
+    public void enableAutoThreads(int maxThreads, TuneListener listener) {
+        this.tuner = new ThreadTuner(Math.max(1, maxThreads));
+        this.tuneListener = listener;
+    }
+
+    public boolean isTuning() { return tuner != null; }
+
+    // Пересоздаёт пул assign-фазы; вызывать между step()
+    public void setThreads(int newThreads) {
+        newThreads = Math.max(1, newThreads);
+        if (newThreads == threads) return;
+        if (pool != null) pool.shutdown();
+        threads = newThreads;
+        pool = newPool(threads);
+    }
+
+    private ExecutorService newPool(int t) {
+        if (t <= 1) return null;
+        return Executors.newFixedThreadPool(t, r -> {
+            Thread th = new Thread(r, "kmeans-assign-" + workerNo.incrementAndGet());
+            th.setDaemon(true);
+            return th;
+        });
+    }
 
     public IterationSnapshot step() {
         if (iter >= maxIter) {
@@ -65,7 +152,13 @@ public final class KMeansSession implements AutoCloseable {
             );
         }
 
+        if (tuner != null) setThreads(tuner.nextThreads());
+
+        KMeansIterationEvent ev = new KMeansIterationEvent();
+        ev.begin();
+
         long t0 = System.nanoTime();
+        long alloc0 = allocatedBytes();
 
         long a0 = System.nanoTime();
         int changes = (threads <= 1) ? assignPointsSequential() : assignPointsParallel();
@@ -75,11 +168,30 @@ public final class KMeansSession implements AutoCloseable {
         double shift = recomputeCentroids();
         long u1 = System.nanoTime();
 
+        long s0 = System.nanoTime();
         double sse = computeSSE();
-
         long t1 = System.nanoTime();
 
         iter++;
+        recordMetrics(a1 - a0, u1 - u0, t1 - s0, t1 - t0, allocatedBytes() - alloc0);
+
+        if (ev.shouldCommit()) {
+            ev.iter = iter;
+            ev.n = n;
+            ev.k = k;
+            ev.threads = threads;
+            ev.weighted = weights != null;
+            ev.assignNanos = a1 - a0;
+            ev.updateNanos = u1 - u0;
+            ev.sseNanos = t1 - s0;
+            ev.changes = changes;
+            ev.distanceEvals = (long) n * k;
+            ev.shift = shift;
+            ev.sse = sse;
+            ev.commit();
+        }
+
+        if (tuner != null) finishTuningStep(a1 - a0);
 
         double assignMs = (a1 - a0) / 1_000_000.0;
         double updateMs = (u1 - u0) / 1_000_000.0;
@@ -98,6 +210,61 @@ public final class KMeansSession implements AutoCloseable {
         );
     }
 
+    private void finishTuningStep(long assignNanos) {
+        tuner.record(assignNanos);
+        if (!tuner.done()) return;
+
+        int best = tuner.best();
+        double bestMs = tuner.bestAssignMs();
+        TuneListener l = tuneListener;
+        tuner = null;
+        tuneListener = null;
+
+        setThreads(best);
+        if (l != null) l.chosen(best, bestMs);
+    }
+
+    private void recordMetrics(long assignNanos, long updateNanos, long sseNanos, long wallNanos, long callerAlloc) {
+        long busy = 0, idle = 0, alloc = callerAlloc;
+        MetricsRegistry reg = MetricsRegistry.global();
+
+        if (pool == null) {
+            busy = assignNanos;
+            reg.recordWorker(Thread.currentThread().getName(), assignNanos, 0);
+        } else {
+            // простой воркера = assign-фаза целиком минус его собственная работа (ожидание самого медленного чанка)
+            for (int i = 0; i < chunkWorker.length; i++) {
+                if (chunkWorker[i] == null) continue;
+                long b = chunkBusyNanos[i];
+                busy += b;
+                idle += Math.max(0, assignNanos - b);
+                alloc += chunkAllocBytes[i];
+                reg.recordWorker(chunkWorker[i], b, assignNanos - b);
+            }
+        }
+
+        metrics.record(new SessionMetrics.IterationStats(
+                iter, wallNanos, assignNanos, updateNanos, sseNanos,
+                n, (long) n * k, alloc, busy, idle
+        ));
+    }
+
+    private static long allocatedBytes() {
+        return ALLOC_MX != null ? ALLOC_MX.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    private static com.sun.management.ThreadMXBean allocMx() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx
+                    && mx.isThreadAllocatedMemorySupported()) {
+                if (!mx.isThreadAllocatedMemoryEnabled()) mx.setThreadAllocatedMemoryEnabled(true);
+                return mx;
+            }
+        } catch (UnsupportedOperationException ignored) {
+        }
+        return null;
+    }
+
     private double[][] initRandomCentroids() {
         double[][] c = new double[k][d];
         for (int i = 0; i < k; i++) {
@@ -138,13 +305,26 @@ public final class KMeansSession implements AutoCloseable {
         int chunks = Math.min(threads, n);
         int chunkSize = (n + chunks - 1) / chunks;
 
+        if (chunkWorker.length != chunks) {
+            chunkBusyNanos = new long[chunks];
+            chunkAllocBytes = new long[chunks];
+            chunkWorker = new String[chunks];
+        }
+        final long[] busyOut = chunkBusyNanos;
+        final long[] allocOut = chunkAllocBytes;
+        final String[] workerOut = chunkWorker;
+        Arrays.fill(workerOut, null);
+
         List<Callable<Integer>> tasks = new ArrayList<>(chunks);
         for (int part = 0; part < chunks; part++) {
             final int start = part * chunkSize;
             final int end = Math.min(n, start + chunkSize);
+            final int slot = part;
             if (start >= end) continue;
 
             tasks.add(() -> {
+                long w0 = System.nanoTime();
+                long al0 = allocatedBytes();
                 int localChanges = 0;
                 for (int i = start; i < end; i++) {
                     double[] x = points.get(i).x();
@@ -164,6 +344,9 @@ public final class KMeansSession implements AutoCloseable {
                         localChanges++;
                     }
                 }
+                allocOut[slot] = allocatedBytes() - al0;
+                busyOut[slot] = System.nanoTime() - w0;
+                workerOut[slot] = Thread.currentThread().getName();
                 return localChanges;
             });
         }
@@ -183,18 +366,19 @@ public final class KMeansSession implements AutoCloseable {
 
     private double recomputeCentroids() {
         double[][] sum = new double[k][d];
-        int[] cnt = new int[k];
+        double[] cnt = new double[k];
 
         for (int i = 0; i < n; i++) {
             int cl = assignment[i];
             double[] x = points.get(i).x();
-            cnt[cl]++;
-            for (int j = 0; j < d; j++) sum[cl][j] += x[j];
+            double w = (weights == null) ? 1.0 : weights[i];
+            cnt[cl] += w;
+            for (int j = 0; j < d; j++) sum[cl][j] += w * x[j];
         }
 
         double shift = 0.0;
         for (int kk = 0; kk < k; kk++) {
-            if (cnt[kk] == 0) {
+            if (cnt[kk] <= 0) {
                 int idx = rnd.nextInt(n);
                 double[] newC = Arrays.copyOf(points.get(idx).x(), d);
                 shift += Math.sqrt(dist2(centroids[kk], newC));
@@ -215,12 +399,13 @@ public final class KMeansSession implements AutoCloseable {
         double sse = 0.0;
         for (int i = 0; i < n; i++) {
             int cl = assignment[i];
-            sse += dist2(points.get(i).x(), centroids[cl]);
+            double d2 = dist2(points.get(i).x(), centroids[cl]);
+            sse += (weights == null) ? d2 : weights[i] * d2;
         }
         return sse;
     }
 
-    private static double dist2(double[] a, double[] b) {
+    static double dist2(double[] a, double[] b) {
         double s = 0.0;
         for (int i = 0; i < a.length; i++) {
             double dx = a[i] - b[i];
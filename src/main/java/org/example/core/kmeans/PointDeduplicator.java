@@ -0,0 +1,70 @@
+package org.example.core.kmeans;
+
+import org.example.model.PointVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Схлопывает одинаковые векторы в пары (вектор, вес).
+// DataGenerator выдаёт целочисленные счётчики, так что повторов много.
+public final class PointDeduplicator {
+    private PointDeduplicator() {}
+
+    // unique.get(u) встречается weights[u] раз; owner[i] — индекс в unique для точки i датасета
+    public record Dedup(List<PointVector> unique, double[] weights, int[] owner) {
+        public int size() { return unique.size(); }
+
+        public double compressionRatio() {
+            return unique.isEmpty() ? 1.0 : (double) owner.length / unique.size();
+        }
+
+        public int[] expand(int[] uniqueAssignment) {
+            int[] out = new int[owner.length];
+            for (int i = 0; i < owner.length; i++) out[i] = uniqueAssignment[owner[i]];
+            return out;
+        }
+    }
+
+    public static Dedup dedup(List<PointVector> points) {
+        int n = points.size();
+        Map<VecKey, Integer> index = new HashMap<>(Math.max(16, n / 2));
+        List<PointVector> unique = new ArrayList<>();
+        double[] w = new double[Math.max(1, n)];
+        int[] owner = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            double[] x = points.get(i).x();
+            Integer u = index.get(new VecKey(x));
+            if (u == null) {
+                u = unique.size();
+                index.put(new VecKey(x), u);
+                unique.add(new PointVector(u, x));
+            }
+            w[u] += 1.0;
+            owner[i] = u;
+        }
+
+        return new Dedup(unique, Arrays.copyOf(w, unique.size()), owner);
+    }
+
+    private static final class VecKey {
+        private final double[] x;
+        private final int hash;
+
+        VecKey(double[] x) {
+            this.x = x;
+            this.hash = Arrays.hashCode(x);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof VecKey other && hash == other.hash && Arrays.equals(x, other.x);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.core.kmeans;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Подбор числа потоков по первым итерациям: каждая итерация — при очередном кандидате,
+// сравнивается время assign-фазы (единственной параллельной). Итерации не холостые —
+// сессия при этом продолжает сходиться.
+final class ThreadTuner {
+
+    private final int[] plan;       // plan[0] — прогрев JIT/пула, в сравнении не участвует
+    private final long[] assignNanos;
+    private int pos = 0;
+
+    ThreadTuner(int maxThreads) {
+        List<Integer> c = candidates(maxThreads);
+        plan = new int[c.size() + 1];
+        plan[0] = c.get(c.size() - 1);
+        for (int i = 0; i < c.size(); i++) plan[i + 1] = c.get(i);
+        assignNanos = new long[plan.length];
+    }
+
+    // 1, 2, 4, ... , maxThreads
+    static List<Integer> candidates(int maxThreads) {
+        List<Integer> out = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) out.add(t);
+        out.add(Math.max(1, maxThreads));
+        return out;
+    }
+
+    boolean done() { return pos >= plan.length; }
+
+    int nextThreads() { return plan[pos]; }
+
+    void record(long nanos) { assignNanos[pos++] = nanos; }
+
+    int best() {
+        int bestIdx = 1;
+        for (int i = 2; i < plan.length; i++) {
+            if (assignNanos[i] < assignNanos[bestIdx]) bestIdx = i;
+        }
+        return plan[bestIdx];
+    }
+
+    double bestAssignMs() {
+        long best = Long.MAX_VALUE;
+        for (int i = 1; i < plan.length; i++) best = Math.min(best, assignNanos[i]);
+        return best / 1_000_000.0;
+    }
+}
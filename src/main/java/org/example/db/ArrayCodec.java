@@ -0,0 +1,32 @@
+package org.example.db;
+
+import java.nio.ByteBuffer;
+
+// Плоские массивы <-> BLOB (big-endian, без заголовка; длина = размер BLOB)
+final class ArrayCodec {
+    private ArrayCodec() {}
+
+    static byte[] packInts(int[] a) {
+        ByteBuffer bb = ByteBuffer.allocate(a.length * 4);
+        bb.asIntBuffer().put(a);
+        return bb.array();
+    }
+
+    static int[] unpackInts(byte[] blob) {
+        int[] a = new int[blob.length / 4];
+        ByteBuffer.wrap(blob).asIntBuffer().get(a);
+        return a;
+    }
+
+    static byte[] packDoubles(double[] a) {
+        ByteBuffer bb = ByteBuffer.allocate(a.length * 8);
+        bb.asDoubleBuffer().put(a);
+        return bb.array();
+    }
+
+    static double[] unpackDoubles(byte[] blob) {
+        double[] a = new double[blob.length / 8];
+        ByteBuffer.wrap(blob).asDoubleBuffer().get(a);
+        return a;
+    }
+}
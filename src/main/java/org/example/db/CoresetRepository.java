@@ -0,0 +1,63 @@
+package org.example.db;
+
+import org.example.metrics.DbWriteEvent;
+import org.example.core.kmeans.CoresetBuilder.Coreset;
+import org.example.model.ScalingMode;
+
+import java.sql.*;
+
+public final class CoresetRepository {
+
+    // null если для (dataset, scaling, size, seed) coreset ещё не строился
+    public Coreset find(long datasetId, ScalingMode scaling, int targetSize, long seed) {
+        String sql = """
+                SELECT idx, weights
+                FROM coresets
+                WHERE dataset_id = ? AND scaling = ? AND target_size = ? AND seed = ?
+                """;
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, datasetId);
+            ps.setString(2, scaling.name());
+            ps.setInt(3, targetSize);
+            ps.setLong(4, seed);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                int[] idx = ArrayCodec.unpackInts(rs.getBytes("idx"));
+                double[] w = ArrayCodec.unpackDoubles(rs.getBytes("weights"));
+                if (idx.length != w.length) return null;
+                return new Coreset(idx, w);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load coreset for datasetId=" + datasetId, e);
+        }
+    }
+
+    public void save(long datasetId, ScalingMode scaling, int targetSize, long seed, Coreset coreset) {
+        String sql = """
+                MERGE INTO coresets(dataset_id, scaling, target_size, seed, idx, weights)
+                KEY(dataset_id, scaling, target_size, seed)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+        DbWriteEvent ev = DbWriteEvent.start("coresets", "MERGE");
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, datasetId);
+            ps.setString(2, scaling.name());
+            ps.setInt(3, targetSize);
+            ps.setLong(4, seed);
+            ps.setBytes(5, ArrayCodec.packInts(coreset.idx()));
+            ps.setBytes(6, ArrayCodec.packDoubles(coreset.weights()));
+            ev.finish(ps.executeUpdate());
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save coreset for datasetId=" + datasetId, e);
+        }
+    }
+}
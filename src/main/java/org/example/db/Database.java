@@ -1,5 +1,7 @@
 package org.example.db;
 
+import org.example.metrics.MetricsRegistry;
+import org.h2.jdbcx.JdbcConnectionPool;
 import org.h2.tools.RunScript;
 
 import java.io.InputStreamReader;
@@ -7,8 +9,11 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 public final class Database {
     private Database() {}
@@ -19,11 +24,55 @@ public final class Database {
             ".local", "share", "rosl", "appdb"
     );
 
+    // QUERY_CACHE_SIZE — кэш разобранных PreparedStatement в сессии H2: с пулом сессии живут долго,
+    // и повторный prepareStatement того же SQL в репозиториях не парсит его заново
     private static final String JDBC_URL =
-            "jdbc:h2:file:" + DB_FILE.toAbsolutePath() + ";AUTO_SERVER=TRUE";
+            "jdbc:h2:file:" + DB_FILE.toAbsolutePath() + ";AUTO_SERVER=TRUE;QUERY_CACHE_SIZE=64";
+
+    // -Drosl.db.pool=N; соединения держим открытыми, close() возвращает их в пул
+    private static final int POOL_SIZE =
+            Integer.getInteger("rosl.db.pool", Math.max(4, Runtime.getRuntime().availableProcessors()));
+    private static final int POOL_WAIT_SECONDS = 30;
+
+    // Миграции схемы: MIGRATIONS[i] переводит базу в версию i+1, применённые версии пишутся в SCHEMA_VERSION,
+    // и при запуске выполняются только новые скрипты (раньше весь schema.sql с ALTER/UPDATE шёл на каждом старте).
+    // schema.sql — базовая версия 1, дальше — /db/migrations/V<N>__*.sql. Базы, созданные до SCHEMA_VERSION,
+    // проходят все скрипты с начала, поэтому в скриптах IF NOT EXISTS. Выпущенные скрипты не править.
+    private static final List<String> MIGRATIONS = List.of(
+            "/db/schema.sql",
+            "/db/migrations/V2__chunks_coresets_run_metadata.sql"
+    );
+
+    private static JdbcConnectionPool pool;
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(JDBC_URL, "sa", "");
+        JdbcConnectionPool p = pool();
+        long t0 = System.nanoTime();
+        Connection c = p.getConnection();
+        MetricsRegistry.global().recordPoolAcquire(System.nanoTime() - t0);
+        return c;
+    }
+
+    public static int poolSize() { return POOL_SIZE; }
+
+    private static synchronized JdbcConnectionPool pool() {
+        if (pool == null) {
+            JdbcConnectionPool p = JdbcConnectionPool.create(JDBC_URL, "sa", "");
+            p.setMaxConnections(POOL_SIZE);
+            p.setLoginTimeout(POOL_WAIT_SECONDS); // сколько ждать свободное соединение
+            MetricsRegistry.global().registerGauge("rosl_db_pool_active", p::getActiveConnections);
+            MetricsRegistry.global().registerGauge("rosl_db_pool_max", p::getMaxConnections);
+            pool = p;
+        }
+        return pool;
+    }
+
+    // Закрывает все соединения пула (выход из приложения / CLI)
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.dispose();
+            pool = null;
+        }
     }
 
     public static void init() {
@@ -33,20 +82,54 @@ public final class Database {
             throw new RuntimeException("Failed to create DB directory: " + DB_FILE.getParent(), e);
         }
 
-        try (Connection c = getConnection();
-             var reader = new InputStreamReader(
-                     Database.class.getResourceAsStream("/db/schema.sql"),
-                     StandardCharsets.UTF_8
-             )) {
-
-            if (reader == null) {
-                throw new IllegalStateException("schema.sql not found: /db/schema.sql");
+        try (Connection c = getConnection()) {
+            try (Statement st = c.createStatement()) {
+                st.execute("""
+                        CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (
+                            VERSION INT PRIMARY KEY,
+                            SCRIPT VARCHAR(255) NOT NULL,
+                            APPLIED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            MS BIGINT
+                        )
+                        """);
             }
 
-            RunScript.execute(c, reader);
+            for (int v = currentVersion(c) + 1; v <= MIGRATIONS.size(); v++) {
+                migrate(c, v, MIGRATIONS.get(v - 1));
+            }
 
         } catch (Exception e) {
             throw new RuntimeException("DB init failed", e);
         }
     }
+
+    private static int currentVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(VERSION), 0) FROM SCHEMA_VERSION")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // DDL в H2 коммитится сам, поэтому версия пишется после скрипта: упавший посередине скрипт
+    // повторится целиком при следующем запуске (скрипты пишем с IF NOT EXISTS)
+    private static void migrate(Connection c, int version, String script) throws Exception {
+        var in = Database.class.getResourceAsStream(script);
+        if (in == null) throw new IllegalStateException("Migration script not found: " + script);
+
+        long t0 = System.nanoTime();
+        try (var reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            RunScript.execute(c, reader);
+        }
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO SCHEMA_VERSION(VERSION, SCRIPT, MS) VALUES (?, ?, ?)")) {
+            ps.setInt(1, version);
+            ps.setString(2, script);
+            ps.setLong(3, ms);
+            ps.executeUpdate();
+        }
+        if (!c.getAutoCommit()) c.commit();
+    }
 }
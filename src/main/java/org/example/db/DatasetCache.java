@@ -0,0 +1,116 @@
+package org.example.db;
+
+import org.example.metrics.MetricsRegistry;
+import org.example.model.PointVector;
+import org.example.model.ScalingMode;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Загруженные точки датасетов в памяти процесса, LRU с бюджетом в байтах (а не по числу записей).
+// Один на процесс: UI, прогоны и BenchmarkCli ходят через DatasetRepository и делят кэш.
+// Бюджет: -Drosl.cache.mb=N (по умолчанию четверть -Xmx), 0 — кэш выключен.
+public final class DatasetCache {
+
+    // на точку сверх n*d*8: заголовки PointVector и double[] + ссылка в списке
+    private static final long POINT_OVERHEAD = 48;
+
+    private static final DatasetCache SHARED = new DatasetCache(defaultBudget());
+
+    public static DatasetCache shared() { return SHARED; }
+
+    private record Key(long datasetId, ScalingMode scaling) {}
+
+    private record Entry(List<PointVector> points, long bytes) {}
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, 0.75f, true); // access-order
+    private long usedBytes = 0; // под this
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    DatasetCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        MetricsRegistry reg = MetricsRegistry.global();
+        reg.registerGauge("rosl_dataset_cache_hits_total", hits::get);
+        reg.registerGauge("rosl_dataset_cache_misses_total", misses::get);
+        reg.registerGauge("rosl_dataset_cache_evictions_total", evictions::get);
+        reg.registerGauge("rosl_dataset_cache_bytes", this::usedBytes);
+        reg.registerGauge("rosl_dataset_cache_budget_bytes", () -> budgetBytes);
+    }
+
+    private static long defaultBudget() {
+        String mb = System.getProperty("rosl.cache.mb");
+        if (mb != null) return Long.parseLong(mb.trim()) * 1024 * 1024;
+        return Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    public static long sizeOf(List<PointVector> points) {
+        if (points.isEmpty()) return 0;
+        int d = points.get(0).x().length;
+        return points.size() * (d * 8L + POINT_OVERHEAD);
+    }
+
+    // null — нет в кэше
+    public synchronized List<PointVector> get(long datasetId, ScalingMode scaling) {
+        Entry e = map.get(new Key(datasetId, scaling));
+        if (e == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return e.points();
+    }
+
+    // Как get, но без счётчиков попаданий/промахов: повторный поиск в рамках одной загрузки
+    // (сырые точки после промаха по масштабированным) не должен считаться вторым промахом
+    public synchronized List<PointVector> peek(long datasetId, ScalingMode scaling) {
+        Entry e = map.get(new Key(datasetId, scaling));
+        return e == null ? null : e.points();
+    }
+
+    // Возвращает неизменяемый вид списка — его и надо отдавать вызывающим
+    public synchronized List<PointVector> put(long datasetId, ScalingMode scaling, List<PointVector> points) {
+        List<PointVector> view = Collections.unmodifiableList(points);
+        long bytes = sizeOf(points);
+        if (bytes > budgetBytes) return view; // не влезет даже один
+
+        Entry old = map.put(new Key(datasetId, scaling), new Entry(view, bytes));
+        if (old != null) usedBytes -= old.bytes();
+        usedBytes += bytes;
+
+        Iterator<Map.Entry<Key, Entry>> it = map.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            if (eldest.getValue().points() == view) continue;
+            usedBytes -= eldest.getValue().bytes();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+        return view;
+    }
+
+    // Все варианты масштабирования датасета (удаление, изменение точек)
+    public synchronized void invalidate(long datasetId) {
+        Iterator<Map.Entry<Key, Entry>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().datasetId() == datasetId) {
+                usedBytes -= e.getValue().bytes();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized long usedBytes() { return usedBytes; }
+
+    public long hits() { return hits.get(); }
+    public long misses() { return misses.get(); }
+    public long evictions() { return evictions.get(); }
+}
@@ -0,0 +1,183 @@
+package org.example.db;
+
+import org.example.metrics.DbWriteEvent;
+import org.example.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Фоновая очистка удалённых датасетов.
+// deleteDataset только ставит DATASETS.DELETED_AT — датасет сразу пропадает из списка и поиска по хэшу.
+// Зависимые строки удаляет поток "db-purge" (низкий приоритет) пачками: каждая пачка — отдельный
+// коммит, между пачками пауза, так что блокировки держатся миллисекунды, а не весь каскад целиком.
+// Порядок: строки прогонов, сами прогоны, точки/чанки, кэши датасета и последней — строка DATASETS.
+// Если приложение закрыли посреди очистки, resume() при следующем запуске её продолжит.
+public final class DatasetPurger {
+
+    private static final DatasetPurger SHARED = new DatasetPurger();
+
+    public static DatasetPurger shared() { return SHARED; }
+
+    // -Drosl.purge.batch — строк за коммит; для таблиц с крупными BLOB (чанки, разметки) — меньше
+    private static final int BATCH_ROWS = Integer.getInteger("rosl.purge.batch", 5000);
+    private static final long PAUSE_MS = Long.getLong("rosl.purge.pause.ms", 20);
+
+    private static final String BY_RUN = "run_id IN (SELECT id FROM runs WHERE dataset_id = ?)";
+    private static final String BY_DATASET = "dataset_id = ?";
+
+    private record Step(String table, String where, int batch) {}
+
+    private static final List<Step> STEPS = List.of(
+            new Step("iter_metrics", BY_RUN, BATCH_ROWS),
+            new Step("cluster_metrics", BY_RUN, BATCH_ROWS),
+            new Step("run_metrics", BY_RUN, BATCH_ROWS),
+            new Step("results", BY_RUN, 8),             // разметка на все точки в каждой строке
+            new Step("runs", BY_DATASET, BATCH_ROWS),
+            new Step("points", BY_DATASET, BATCH_ROWS),
+            new Step("point_chunks", BY_DATASET, 4),    // CHUNK_POINTS точек в строке
+            new Step("coresets", BY_DATASET, 8),
+            new Step("projections", BY_DATASET, BATCH_ROWS),
+            new Step("feature_stats", BY_DATASET, BATCH_ROWS)
+    );
+
+    // pendingDatasets — сколько помеченных датасетов ещё не дочищено (включая текущий), 0 — всё
+    public record Progress(long datasetId, long deletedRows, long totalRows, int pendingDatasets) {
+        public boolean done() { return pendingDatasets == 0; }
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        void update(Progress p); // из потока db-purge
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "db-purge");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong deletedRows = new AtomicLong();
+    private volatile int pending = 0;
+
+    private DatasetPurger() {
+        MetricsRegistry reg = MetricsRegistry.global();
+        reg.registerGauge("rosl_purge_pending_datasets", () -> pending);
+        reg.registerGauge("rosl_purge_deleted_rows_total", deletedRows::get);
+    }
+
+    public void addListener(Listener l) { listeners.add(l); }
+
+    public void removeListener(Listener l) { listeners.remove(l); }
+
+    public int pending() { return pending; }
+
+    // Дочистить все помеченные датасеты. Флаг снимается в начале прохода: пометка,
+    // сделанная во время очистки, поставит ещё один проход, а не потеряется
+    public void resume() {
+        if (!queued.compareAndSet(false, true)) return;
+        worker.submit(() -> {
+            queued.set(false);
+            drain();
+        });
+    }
+
+    private void drain() {
+        try {
+            List<Long> ids;
+            while (!(ids = markedIds()).isEmpty()) {
+                pending = ids.size();
+                purge(ids.get(0), ids.size());
+            }
+        } catch (Exception e) {
+            e.printStackTrace(); // оставшееся дочистит следующий resume()
+        } finally {
+            pending = 0;
+        }
+    }
+
+    private void purge(long datasetId, int pendingDatasets) throws SQLException, InterruptedException {
+        long total = countRows(datasetId);
+        long done = 0;
+        notifyListeners(new Progress(datasetId, 0, total, pendingDatasets));
+
+        for (Step s : STEPS) {
+            String sql = "DELETE FROM " + s.table() + " WHERE " + s.where() + " LIMIT ?";
+            while (true) {
+                DbWriteEvent ev = DbWriteEvent.start(s.table(), "PURGE");
+                int k;
+                try (Connection c = Database.getConnection();
+                     PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setLong(1, datasetId);
+                    ps.setInt(2, s.batch());
+                    k = ps.executeUpdate();
+                }
+                ev.finish(k);
+                if (k == 0) break;
+
+                done += k;
+                deletedRows.addAndGet(k);
+                notifyListeners(new Progress(datasetId, done, Math.max(done, total), pendingDatasets));
+                Thread.sleep(PAUSE_MS);
+            }
+        }
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "DELETE FROM datasets WHERE id = ? AND deleted_at IS NOT NULL")) {
+            ps.setLong(1, datasetId);
+            ps.executeUpdate();
+        }
+        notifyListeners(new Progress(datasetId, done, done, pendingDatasets - 1));
+    }
+
+    private static List<Long> markedIds() throws SQLException {
+        List<Long> out = new ArrayList<>();
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT id FROM datasets WHERE deleted_at IS NOT NULL ORDER BY deleted_at, id");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(rs.getLong(1));
+        }
+        return out;
+    }
+
+    // для процента в UI; COUNT по индексам внешних ключей
+    private static long countRows(long datasetId) throws SQLException {
+        long total = 0;
+        try (Connection c = Database.getConnection()) {
+            for (Step s : STEPS) {
+                try (PreparedStatement ps = c.prepareStatement(
+                        "SELECT COUNT(*) FROM " + s.table() + " WHERE " + s.where())) {
+                    ps.setLong(1, datasetId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        total += rs.getLong(1);
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    private void notifyListeners(Progress p) {
+        for (Listener l : listeners) {
+            try {
+                l.update(p);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
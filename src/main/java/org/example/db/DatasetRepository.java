@@ -1,19 +1,38 @@
 package org.example.db;
 
+import org.example.metrics.DbWriteEvent;
+import org.example.core.FeatureScaler;
+import org.example.core.ParallelChunks;
 import org.example.model.DatasetInfo;
 import org.example.model.Feature;
 import org.example.model.PointVector;
+import org.example.model.ScalingMode;
 
-import java.io.*;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class DatasetRepository {
 
+    private static final int STATS_THREADS = Runtime.getRuntime().availableProcessors();
+
+    // DATASETS.STORAGE
+    static final int STORAGE_ROWS = 1;
+    static final int STORAGE_CHUNKS = 2;
+    static final int CHUNK_POINTS = 65_536;
+
+    // целочисленные чанки — int32 вместо double (-Drosl.db.compactInts=false — всегда double)
+    static final boolean COMPACT_INTS =
+            Boolean.parseBoolean(System.getProperty("rosl.db.compactInts", "true"));
+
     public List<DatasetInfo> listDatasets() {
-        String sql = "SELECT id, name, n, d, created_at FROM datasets ORDER BY created_at DESC";
+        // недописанные (ready = FALSE, см. DatasetWriter) и удалённые не показываем
+        String sql = "SELECT id, name, n, d, created_at FROM datasets "
+                + "WHERE ready AND deleted_at IS NULL ORDER BY created_at DESC";
         List<DatasetInfo> out = new ArrayList<>();
 
         try (Connection c = Database.getConnection();
@@ -37,8 +56,11 @@ public final class DatasetRepository {
         }
     }
 
+    // Только помечает датасет удалённым (из списка пропадает сразу); точки, прогоны и прочее
+    // удаляет DatasetPurger пачками в фоне — каскадный DELETE большого датасета держал блокировки минутами
     public boolean deleteDataset(long datasetId) {
-        String sql = "DELETE FROM datasets WHERE id = ?";
+        String sql = "UPDATE datasets SET deleted_at = CURRENT_TIMESTAMP WHERE id = ? AND deleted_at IS NULL";
+        DbWriteEvent ev = DbWriteEvent.start("datasets", "HIDE");
 
         try (Connection c = Database.getConnection()) {
             c.setAutoCommit(false);
@@ -50,6 +72,9 @@ public final class DatasetRepository {
             }
 
             c.commit();
+            DatasetCache.shared().invalidate(datasetId);
+            ev.finish(affected);
+            if (affected > 0) DatasetPurger.shared().resume();
             return affected > 0;
 
         } catch (Exception e) {
@@ -57,60 +82,355 @@ public final class DatasetRepository {
         }
     }
 
+    // Точки пишутся колоночными чанками по CHUNK_POINTS; idx точки = её позиция в списке
     public long createDataset(String name, int n, long seed, double sigma, List<PointVector> points) {
         if (points.size() != n) throw new IllegalArgumentException("points.size != n");
 
-        String insertDataset = "INSERT INTO datasets(name, n, seed, sigma, d) VALUES (?, ?, ?, ?, ?)";
-        String insertPoint   = "INSERT INTO points(dataset_id, idx, vec) VALUES (?, ?, ?)";
+        int d = points.isEmpty() ? Feature.count() : points.get(0).x().length;
+        try (DatasetWriter w = openWriter(name, seed, sigma, d)) {
+            w.addAll(points);
+            return w.finish();
+        }
+    }
+
+    // Потоковое создание датасета размерности d (импорт файлов, генерация больших N)
+    public DatasetWriter openWriter(String name, long seed, double sigma, int d) {
+        return openWriter(name, seed, sigma, d, null);
+    }
+
+    // contentHash != null — датасет потом находится через findByContentHash
+    public DatasetWriter openWriter(String name, long seed, double sigma, int d, String contentHash) {
+        return new DatasetWriter(name, seed, sigma, d, contentHash);
+    }
+
+    // Готовый датасет с таким хэшем содержимого; -1 — нет
+    public long findByContentHash(String contentHash) {
+        String sql = "SELECT id FROM datasets WHERE content_hash = ? AND ready AND deleted_at IS NULL "
+                + "ORDER BY id LIMIT 1";
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, contentHash);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to look up dataset by hash", e);
+        }
+    }
 
+    // Дозапись точек в конец датасета: idx = n, n+1, ...; возвращает новое n.
+    // Хэш содержимого сбрасывается (датасет больше не равен результату генератора/файла),
+    // coreset и проекции удаляются — они считались по старому набору точек
+    public int appendPoints(long datasetId, List<double[]> rows) {
+        DbWriteEvent ev = DbWriteEvent.start("point_chunks", "APPEND");
         Connection c = null;
         try {
             c = Database.getConnection();
             c.setAutoCommit(false);
 
-            long datasetId;
-            try (PreparedStatement ps = c.prepareStatement(insertDataset, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setString(1, name);
-                ps.setInt(2, n);
-                ps.setLong(3, seed);
-                ps.setDouble(4, sigma);
-                ps.setInt(5, Feature.count()); // 15
-                ps.executeUpdate();
-
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (!keys.next()) throw new SQLException("No generated key for dataset");
-                    datasetId = keys.getLong(1);
+            int n, d, storage;
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT n, d, storage, ready, deleted_at FROM datasets WHERE id = ? FOR UPDATE")) {
+                ps.setLong(1, datasetId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) throw new IllegalArgumentException("Dataset not found: id=" + datasetId);
+                    // удаляемый (его строки уже чистит DatasetPurger) или ещё записываемый DatasetWriter'ом:
+                    // номера чанков и n столкнулись бы с чужими
+                    if (rs.getTimestamp(5) != null) {
+                        throw new IllegalStateException("Dataset id=" + datasetId + " is being deleted");
+                    }
+                    if (!rs.getBoolean(4)) {
+                        throw new IllegalStateException("Dataset id=" + datasetId + " is still being written");
+                    }
+                    n = rs.getInt(1);
+                    d = rs.getInt(2);
+                    storage = rs.getInt(3);
                 }
             }
+            for (double[] x : rows) {
+                if (x.length != d) throw new IllegalArgumentException("Point dim " + x.length + " != " + d);
+            }
 
-            try (PreparedStatement ps = c.prepareStatement(insertPoint)) {
-                for (PointVector p : points) {
-                    double[] x = p.x();
-                    if (x.length != Feature.count()) {
-                        throw new IllegalArgumentException("Point dim != Feature.count()");
-                    }
+            if (storage == STORAGE_CHUNKS) appendChunks(c, datasetId, n, d, rows);
+            else appendPointRows(c, datasetId, n, rows);
 
+            int newN = n + rows.size();
+            try (PreparedStatement ps = c.prepareStatement(
+                    "UPDATE datasets SET n = ?, content_hash = NULL WHERE id = ?")) {
+                ps.setInt(1, newN);
+                ps.setLong(2, datasetId);
+                ps.executeUpdate();
+            }
+            for (String table : new String[]{"coresets", "projections"}) {
+                try (PreparedStatement ps = c.prepareStatement("DELETE FROM " + table + " WHERE dataset_id = ?")) {
                     ps.setLong(1, datasetId);
-                    ps.setInt(2, p.idx());
-                    ps.setBytes(3, packVec(x));
-
-                    ps.addBatch();
+                    ps.executeUpdate();
                 }
-                ps.executeBatch();
+            }
+
+            // статистики: нет сохранённых — посчитаются при первой загрузке со scaling
+            FeatureScaler.Stats old = loadFeatureStats(c, datasetId);
+            if (old != null && old.dim() == d && !rows.isEmpty()) {
+                FeatureScaler.Accumulator acc = FeatureScaler.Accumulator.of(old);
+                for (double[] x : rows) acc.add(x);
+                saveFeatureStats(c, datasetId, acc.toStats());
             }
 
             c.commit();
-            return datasetId;
+            DatasetCache.shared().invalidate(datasetId);
+            ev.finish(rows.size());
+            return newN;
 
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // отказ по состоянию датасета / размерности — сообщение как есть
+            try { if (c != null) c.rollback(); } catch (Exception ignored) {}
+            throw e;
         } catch (Exception e) {
             try { if (c != null) c.rollback(); } catch (Exception ignored) {}
-            throw new RuntimeException("Failed to create dataset", e);
+            throw new RuntimeException("Failed to append points to dataset id=" + datasetId, e);
         } finally {
             try { if (c != null) c.close(); } catch (Exception ignored) {}
         }
     }
 
+    // Сначала добиваем последний неполный чанк до CHUNK_POINTS (перечитываем и переписываем его),
+    // и только остаток — новыми чанками: иначе частые мелкие дозаписи оставляют россыпь крошечных чанков
+    private static void appendChunks(Connection c, long datasetId, int n, int d, List<double[]> rows)
+            throws SQLException {
+        int chunkNo = 0;
+        int taken = 0;
+        try (PreparedStatement ps = c.prepareStatement("""
+                SELECT chunk_no, start_idx, cnt, dim, format, data
+                FROM point_chunks
+                WHERE dataset_id = ?
+                ORDER BY chunk_no DESC
+                FETCH FIRST 1 ROWS ONLY
+                """)) {
+            ps.setLong(1, datasetId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    int lastNo = rs.getInt("chunk_no");
+                    int start = rs.getInt("start_idx");
+                    int cnt = rs.getInt("cnt");
+                    chunkNo = lastNo + 1;
+                    if (cnt < CHUNK_POINTS && start + cnt == n && rs.getInt("dim") == d) {
+                        taken = Math.min(rows.size(), CHUNK_POINTS - cnt);
+                        PointVector[] merged = new PointVector[cnt + taken];
+                        PointChunkCodec.decodeInto(rs.getBytes("data"), rs.getInt("format"), 0, cnt, d, d, merged);
+                        for (int i = 0; i < taken; i++) merged[cnt + i] = new PointVector(n + i, rows.get(i));
+                        rewriteChunk(c, datasetId, lastNo, Arrays.asList(merged), d);
+                    }
+                }
+            }
+        }
+
+        String sql = """
+                INSERT INTO point_chunks(dataset_id, chunk_no, start_idx, cnt, dim, format, data)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int from = taken; from < rows.size(); from += CHUNK_POINTS, chunkNo++) {
+                int to = Math.min(rows.size(), from + CHUNK_POINTS);
+                List<PointVector> chunk = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) chunk.add(new PointVector(n + i, rows.get(i)));
+
+                PointChunkCodec.Encoded enc = PointChunkCodec.encode(chunk, 0, chunk.size(), d, COMPACT_INTS);
+                ps.setLong(1, datasetId);
+                ps.setInt(2, chunkNo);
+                ps.setInt(3, n + from);
+                ps.setInt(4, to - from);
+                ps.setInt(5, d);
+                ps.setInt(6, enc.format());
+                ps.setBytes(7, enc.data());
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    // start_idx не меняется: чанк растёт только в хвост
+    private static void rewriteChunk(Connection c, long datasetId, int chunkNo, List<PointVector> points, int d)
+            throws SQLException {
+        PointChunkCodec.Encoded enc = PointChunkCodec.encode(points, 0, points.size(), d, COMPACT_INTS);
+        try (PreparedStatement ps = c.prepareStatement(
+                "UPDATE point_chunks SET cnt = ?, format = ?, data = ? WHERE dataset_id = ? AND chunk_no = ?")) {
+            ps.setInt(1, points.size());
+            ps.setInt(2, enc.format());
+            ps.setBytes(3, enc.data());
+            ps.setLong(4, datasetId);
+            ps.setInt(5, chunkNo);
+            ps.executeUpdate();
+        }
+    }
+
+    // старый формат: строка POINTS на точку
+    private static void appendPointRows(Connection c, long datasetId, int n, List<double[]> rows)
+            throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("INSERT INTO points(dataset_id, idx, vec) VALUES (?, ?, ?)")) {
+            int batch = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                ps.setLong(1, datasetId);
+                ps.setInt(2, n + i);
+                ps.setBytes(3, VectorCodec.encode(rows.get(i), COMPACT_INTS));
+                ps.addBatch();
+                if (++batch == 4096) {
+                    ps.executeBatch();
+                    batch = 0;
+                }
+            }
+            if (batch > 0) ps.executeBatch();
+        }
+    }
+
+    // Прогресс загрузки: loaded из total точек (вызывается из потоков загрузки)
+    @FunctionalInterface
+    public interface LoadProgress {
+        void update(int loaded, int total);
+
+        LoadProgress NONE = (loaded, total) -> {};
+    }
+
     public List<PointVector> loadPoints(long datasetId) {
+        return loadPoints(datasetId, LoadProgress.NONE);
+    }
+
+    // Диапазоны (чанки или idx) читаются параллельно по отдельным соединениям пула
+    // и декодируются сразу в итоговые позиции массива точек
+    public List<PointVector> loadPoints(long datasetId, LoadProgress progress) {
+        int storage;
+        int n;
+        int d;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT storage, n, d FROM datasets WHERE id = ?")) {
+            ps.setLong(1, datasetId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return new ArrayList<>();
+                storage = rs.getInt("storage");
+                n = rs.getInt("n");
+                d = rs.getInt("d") > 0 ? rs.getInt("d") : Feature.count();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load points for datasetId=" + datasetId, e);
+        }
+
+        try {
+            if (storage == STORAGE_CHUNKS) return loadChunks(datasetId, n, d, progress);
+            List<PointVector> out = loadPointRowsParallel(datasetId, n, d, progress);
+            return out != null ? out : loadPointRows(datasetId, d);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to load points for datasetId=" + datasetId, e);
+        }
+    }
+
+    // не занимаем весь пул: писателям (метрики итераций и т.п.) должно оставаться соединение
+    private static int loadThreads() {
+        return Math.max(1, Math.min(STATS_THREADS, Database.poolSize() - 1));
+    }
+
+    private static List<PointVector> loadChunks(long datasetId, int n, int d, LoadProgress progress) {
+        // оглавление без DATA: номера чанков и число точек
+        List<int[]> toc = new ArrayList<>(); // {chunk_no, start_idx, cnt}
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT chunk_no, start_idx, cnt FROM point_chunks WHERE dataset_id = ? ORDER BY chunk_no")) {
+            ps.setLong(1, datasetId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) toc.add(new int[]{rs.getInt(1), rs.getInt(2), rs.getInt(3)});
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read point chunks", e);
+        }
+
+        // чанки по порядку должны покрывать 0..N-1 без дыр и перекрытий, иначе в списке останутся null
+        long next = 0;
+        for (int[] t : toc) {
+            if (t[1] != next) {
+                throw new IllegalStateException("Point chunks of dataset id=" + datasetId + " are not contiguous: chunk "
+                        + t[0] + " starts at " + t[1] + ", expected " + next);
+            }
+            next += t[2];
+        }
+        if (next != n) {
+            throw new IllegalStateException("Point chunks of dataset id=" + datasetId + " hold " + next
+                    + " points, DATASETS.N = " + n);
+        }
+
+        PointVector[] out = new PointVector[n];
+        AtomicInteger loaded = new AtomicInteger();
+        progress.update(0, n);
+
+        String sql = """
+                SELECT start_idx, cnt, dim, format, data
+                FROM point_chunks
+                WHERE dataset_id = ? AND chunk_no >= ? AND chunk_no <= ?
+                """;
+        ParallelChunks.map(toc.size(), loadThreads(), "dataset-load", (from, to) -> {
+            try (Connection c = Database.getConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setLong(1, datasetId);
+                ps.setInt(2, toc.get(from)[0]);
+                ps.setInt(3, toc.get(to - 1)[0]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int cnt = rs.getInt("cnt");
+                        PointChunkCodec.decodeInto(rs.getBytes("data"), rs.getInt("format"),
+                                rs.getInt("start_idx"), cnt, rs.getInt("dim"), d, out);
+                        progress.update(loaded.addAndGet(cnt), n);
+                    }
+                }
+            }
+            return null;
+        });
+        return Arrays.asList(out);
+    }
+
+    // Старый формат (строка POINTS на точку), диапазоны idx параллельно.
+    // null — idx не образуют 0..n-1 (очень старые данные), тогда читаем последовательно
+    private static List<PointVector> loadPointRowsParallel(long datasetId, int n, int d, LoadProgress progress) {
+        if (n <= 0) return null;
+
+        String sql = """
+                SELECT idx, vec
+                FROM points
+                WHERE dataset_id = ? AND idx >= ? AND idx < ?
+                """;
+
+        PointVector[] out = new PointVector[n];
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicBoolean broken = new AtomicBoolean();
+        progress.update(0, n);
+
+        ParallelChunks.map(n, loadThreads(), "dataset-load", (from, to) -> {
+            int sinceReport = 0;
+            try (Connection c = Database.getConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setLong(1, datasetId);
+                ps.setInt(2, from);
+                ps.setInt(3, to);
+                ps.setFetchSize(4096);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int idx = rs.getInt(1);
+                        if (out[idx] != null) broken.set(true); // дубликат idx
+                        out[idx] = new PointVector(idx, VectorCodec.decode(rs.getBytes(2), d));
+                        if (++sinceReport == 8192) {
+                            progress.update(loaded.addAndGet(sinceReport), n);
+                            sinceReport = 0;
+                        }
+                    }
+                }
+            }
+            progress.update(loaded.addAndGet(sinceReport), n);
+            return null;
+        });
+
+        if (broken.get()) return null;
+        for (PointVector p : out) if (p == null) return null;
+        return Arrays.asList(out);
+    }
+
+    // Последовательное чтение старого формата с ORDER BY idx (idx с пропусками/дубликатами)
+    private static List<PointVector> loadPointRows(long datasetId, int d) {
         String sql = """
                 SELECT idx, vec
                 FROM points
@@ -130,7 +450,7 @@ public final class DatasetRepository {
                     int idx = rs.getInt("idx");
                     byte[] blob = rs.getBytes("vec");
 
-                    double[] x = unpackVecToDim(blob, Feature.count()); // 15 (старые добьём нулями)
+                    double[] x = VectorCodec.decode(blob, d); // короче D (очень старые) добьём нулями
                     out.add(new PointVector(idx, x));
                 }
             }
@@ -142,29 +462,83 @@ public final class DatasetRepository {
         }
     }
 
-    // ---- vec (BLOB) codec ----
-    private static byte[] packVec(double[] x) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream(8 + x.length * 8);
-        try (DataOutputStream dos = new DataOutputStream(bos)) {
-            dos.writeInt(x.length);
-            for (double v : x) dos.writeDouble(v);
+    // Точки с применённым масштабированием; статистики берутся из FEATURE_STATS
+    // (для старых датасетов считаются при первой загрузке и сохраняются)
+    public List<PointVector> loadPoints(long datasetId, ScalingMode mode) {
+        return loadPoints(datasetId, mode, LoadProgress.NONE);
+    }
+
+    // Через общий DatasetCache: повторный выбор датасета не читает и не декодирует точки заново
+    public List<PointVector> loadPoints(long datasetId, ScalingMode mode, LoadProgress progress) {
+        if (mode == null) mode = ScalingMode.NONE;
+        DatasetCache cache = DatasetCache.shared();
+
+        List<PointVector> cached = cache.get(datasetId, mode);
+        if (cached != null) {
+            progress.update(cached.size(), cached.size());
+            return cached;
         }
-        return bos.toByteArray();
+
+        List<PointVector> raw = cache.peek(datasetId, ScalingMode.NONE);
+        if (raw == null) raw = cache.put(datasetId, ScalingMode.NONE, loadPoints(datasetId, progress));
+        if (mode == ScalingMode.NONE || raw.isEmpty()) return raw;
+        return cache.put(datasetId, mode, scale(datasetId, mode, raw));
     }
 
-    private static double[] unpackVecToDim(byte[] blob, int targetDim) throws IOException {
-        if (blob == null || blob.length == 0) return new double[targetDim];
+    private List<PointVector> scale(long datasetId, ScalingMode mode, List<PointVector> raw) {
 
-        double[] raw;
-        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(blob))) {
-            int len = dis.readInt();
-            raw = new double[Math.max(0, len)];
-            for (int i = 0; i < raw.length; i++) raw[i] = dis.readDouble();
+        FeatureScaler.Stats stats = loadFeatureStats(datasetId);
+        if (stats == null || stats.dim() != raw.get(0).x().length) {
+            stats = FeatureScaler.computeStats(raw, STATS_THREADS);
+            try (Connection c = Database.getConnection()) {
+                saveFeatureStats(c, datasetId, stats);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to save feature stats for datasetId=" + datasetId, e);
+            }
         }
+        return FeatureScaler.apply(raw, mode, stats, STATS_THREADS);
+    }
 
-        double[] x = new double[targetDim];
-        int m = Math.min(raw.length, x.length);
-        System.arraycopy(raw, 0, x, 0, m);
-        return x;
+    public FeatureScaler.Stats loadFeatureStats(long datasetId) {
+        try (Connection c = Database.getConnection()) {
+            return loadFeatureStats(c, datasetId);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load feature stats for datasetId=" + datasetId, e);
+        }
+    }
+
+    private static FeatureScaler.Stats loadFeatureStats(Connection c, long datasetId) throws SQLException {
+        String sql = "SELECT cnt, min_vals, max_vals, mean_vals, std_vals FROM feature_stats WHERE dataset_id = ?";
+
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, datasetId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new FeatureScaler.Stats(
+                        rs.getLong("cnt"),
+                        ArrayCodec.unpackDoubles(rs.getBytes("min_vals")),
+                        ArrayCodec.unpackDoubles(rs.getBytes("max_vals")),
+                        ArrayCodec.unpackDoubles(rs.getBytes("mean_vals")),
+                        ArrayCodec.unpackDoubles(rs.getBytes("std_vals"))
+                );
+            }
+        }
+    }
+
+    static void saveFeatureStats(Connection c, long datasetId, FeatureScaler.Stats st) throws SQLException {
+        String sql = """
+                MERGE INTO feature_stats(dataset_id, cnt, min_vals, max_vals, mean_vals, std_vals)
+                KEY(dataset_id)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, datasetId);
+            ps.setLong(2, st.count());
+            ps.setBytes(3, ArrayCodec.packDoubles(st.min()));
+            ps.setBytes(4, ArrayCodec.packDoubles(st.max()));
+            ps.setBytes(5, ArrayCodec.packDoubles(st.mean()));
+            ps.setBytes(6, ArrayCodec.packDoubles(st.std()));
+            ps.executeUpdate();
+        }
     }
 }
@@ -0,0 +1,166 @@
+package org.example.db;
+
+import org.example.core.FeatureScaler;
+import org.example.metrics.DbWriteEvent;
+import org.example.model.PointVector;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Потоковая запись датасета в POINT_CHUNKS: точки копятся до CHUNK_POINTS и уходят одним чанком,
+// статистики признаков считаются по ходу. В памяти не больше одного чанка — для импорта и генерации,
+// где весь датасет списком держать нельзя. idx точки = порядковый номер add().
+// Коммит на каждый чанк (undo-лог H2 не растёт с N). Строка DATASETS создаётся с READY = FALSE —
+// недописанный датасет не виден в списке и по хэшу; n, статистики и READY проставляет finish()
+// одной транзакцией, close() без finish() отдаёт недописанный датасет на фоновую очистку (DatasetPurger).
+public final class DatasetWriter implements AutoCloseable {
+
+    private final Connection c;
+    private final PreparedStatement insertChunk;
+    private final long datasetId;
+    private final int d;
+    private final String contentHash;
+    private final DbWriteEvent ev = DbWriteEvent.start("point_chunks", "INSERT");
+
+    private final List<PointVector> pending = new ArrayList<>(DatasetRepository.CHUNK_POINTS);
+    private final FeatureScaler.Accumulator stats;
+    private int written = 0;
+    private int chunkNo = 0;
+    private boolean finished = false;
+    private boolean closed = false;
+
+    DatasetWriter(String name, long seed, double sigma, int d, String contentHash) {
+        this.d = d;
+        this.contentHash = contentHash;
+        this.stats = new FeatureScaler.Accumulator(d);
+
+        String insertDataset = "INSERT INTO datasets(name, n, seed, sigma, d, storage, ready) VALUES (?, 0, ?, ?, ?, ?, FALSE)";
+        String chunkSql = """
+                INSERT INTO point_chunks(dataset_id, chunk_no, start_idx, cnt, dim, format, data)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """;
+
+        Connection conn = null;
+        try {
+            conn = Database.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement ps = conn.prepareStatement(insertDataset, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, name);
+                ps.setLong(2, seed);
+                ps.setDouble(3, sigma);
+                ps.setInt(4, d);
+                ps.setInt(5, DatasetRepository.STORAGE_CHUNKS);
+                ps.executeUpdate();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (!keys.next()) throw new SQLException("No generated key for dataset");
+                    this.datasetId = keys.getLong(1);
+                }
+            }
+            conn.commit();
+            this.insertChunk = conn.prepareStatement(chunkSql);
+            this.c = conn;
+
+        } catch (Exception e) {
+            if (conn != null) {
+                try { conn.rollback(); } catch (Exception ignored) {}
+                try { conn.close(); } catch (Exception ignored) {}
+            }
+            throw new RuntimeException("Failed to create dataset", e);
+        }
+    }
+
+    public long datasetId() { return datasetId; }
+
+    public int dim() { return d; }
+
+    // записано + в буфере
+    public int size() { return written + pending.size(); }
+
+    public void add(double[] x) {
+        if (finished) throw new IllegalStateException("writer already finished");
+        if (x.length != d) throw new IllegalArgumentException("Point dim " + x.length + " != " + d);
+
+        pending.add(new PointVector(size(), x));
+        stats.add(x);
+        if (pending.size() == DatasetRepository.CHUNK_POINTS) flushChunk();
+    }
+
+    public void addAll(List<PointVector> points) {
+        for (PointVector p : points) add(p.x());
+    }
+
+    private void flushChunk() {
+        if (pending.isEmpty()) return;
+        try {
+            insertChunk.setLong(1, datasetId);
+            insertChunk.setInt(2, chunkNo);
+            insertChunk.setInt(3, written);
+            insertChunk.setInt(4, pending.size());
+            insertChunk.setInt(5, d);
+            PointChunkCodec.Encoded chunk = PointChunkCodec.encode(pending, 0, pending.size(), d,
+                    DatasetRepository.COMPACT_INTS);
+            insertChunk.setInt(6, chunk.format());
+            insertChunk.setBytes(7, chunk.data());
+            insertChunk.executeUpdate();
+            c.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to write chunk " + chunkNo + " of dataset id=" + datasetId, e);
+        }
+        written += pending.size();
+        chunkNo++;
+        pending.clear();
+    }
+
+    // Дописывает хвост, фиксирует n, хэш содержимого и статистики и открывает датасет (READY), коммитит
+    public long finish() {
+        if (finished) return datasetId;
+        flushChunk();
+        try {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "UPDATE datasets SET n = ?, content_hash = ?, ready = TRUE WHERE id = ?")) {
+                ps.setInt(1, written);
+                ps.setString(2, contentHash);
+                ps.setLong(3, datasetId);
+                ps.executeUpdate();
+            }
+            if (written > 0) DatasetRepository.saveFeatureStats(c, datasetId, stats.toStats());
+            c.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to finish dataset id=" + datasetId, e);
+        }
+        finished = true;
+        ev.finish(written);
+        return datasetId;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (!finished) {
+            try {
+                // уже записанные чанки (их может быть много) удаляет DatasetPurger пачками,
+                // а не один каскадный DELETE
+                c.rollback();
+                try (PreparedStatement ps = c.prepareStatement(
+                        "UPDATE datasets SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?")) {
+                    ps.setLong(1, datasetId);
+                    ps.executeUpdate();
+                }
+                c.commit();
+                DatasetPurger.shared().resume();
+            } catch (Exception e) {
+                e.printStackTrace(); // останется скрытая строка с READY = FALSE
+            }
+        }
+        try { insertChunk.close(); } catch (Exception ignored) {}
+        try { c.close(); } catch (Exception ignored) {}
+    }
+}
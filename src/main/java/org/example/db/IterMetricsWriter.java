@@ -0,0 +1,130 @@
+package org.example.db;
+
+import org.example.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind для iter_metrics: step() только кладёт строку в очередь,
+// отдельный поток пишет пачками (по размеру или по времени) одной транзакцией.
+// Очередь ограничена: если БД не успевает, submit() ждёт (backpressure), строки не теряются.
+public final class IterMetricsWriter implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 1024;
+    private static final long FLUSH_INTERVAL_MS = 200;
+
+    private final MetricsRepository repo;
+    private final BlockingQueue<MetricsRepository.IterRow> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread worker;
+
+    private final Object progress = new Object();
+    private long submitted = 0; // под progress
+    private long processed = 0; // под progress: записано или отброшено из-за ошибки
+    private long failed = 0;
+    private volatile boolean closed = false;
+    private volatile boolean flushWaiting = false;
+
+    public IterMetricsWriter(MetricsRepository repo) {
+        this.repo = repo;
+        this.worker = new Thread(this::loop, "iter-metrics-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        // строки, потерянные из-за ошибки записи (прогон при этом не падает)
+        MetricsRegistry.global().registerGauge("rosl_iter_metrics_failed_rows_total", this::failedRows);
+    }
+
+    public void submit(long runId, int iter, double sse, double assignMs, double updateMs, double totalMs) {
+        if (closed) throw new IllegalStateException("IterMetricsWriter closed");
+        synchronized (progress) { submitted++; }
+        try {
+            queue.put(new MetricsRepository.IterRow(runId, iter, sse, assignMs, updateMs, totalMs));
+        } catch (InterruptedException e) {
+            synchronized (progress) { submitted--; }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Ждёт, пока всё отправленное до вызова окажется в БД (конец прогона)
+    public void flush() {
+        synchronized (progress) {
+            long target = submitted;
+            flushWaiting = true;
+            try {
+                while (processed < target && worker.isAlive()) {
+                    progress.wait(FLUSH_INTERVAL_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                flushWaiting = false;
+            }
+        }
+    }
+
+    public long failedRows() {
+        synchronized (progress) { return failed; }
+    }
+
+    private void loop() {
+        List<MetricsRepository.IterRow> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                MetricsRepository.IterRow first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // добираем до BATCH_SIZE, но не дольше FLUSH_INTERVAL_MS от первой строки
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                while (batch.size() < BATCH_SIZE) {
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                    if (batch.size() >= BATCH_SIZE || flushRequested()) break;
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) break;
+                    MetricsRepository.IterRow r = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (r == null) break;
+                    batch.add(r);
+                }
+            } catch (InterruptedException ignored) {
+                // поток не прерываем (H2 закрывает файл при interrupt), но на всякий случай
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // кто-то ждёт во flush()/close() и вся очередь уже у нас — незачем досиживать интервал
+    private boolean flushRequested() {
+        return (flushWaiting || closed) && queue.isEmpty();
+    }
+
+    private void write(List<MetricsRepository.IterRow> batch) {
+        if (batch.isEmpty()) return;
+        boolean ok = true;
+        try {
+            repo.insertIterMetrics(batch);
+        } catch (Exception e) {
+            ok = false;
+            e.printStackTrace(); // метрики итераций не критичны для прогона
+        }
+        synchronized (progress) {
+            processed += batch.size();
+            if (!ok) failed += batch.size();
+            progress.notifyAll();
+        }
+    }
+
+    // Дописывает очередь и останавливает поток (без interrupt — см. loop)
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
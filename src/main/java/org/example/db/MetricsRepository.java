@@ -1,11 +1,21 @@
 package org.example.db;
 
+import org.example.metrics.DbWriteEvent;
+import org.example.metrics.SessionMetrics;
+import org.example.model.ScalingMode;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 public final class MetricsRepository {
 
+    public record IterRow(long runId, int iter, double sse, double assignMs, double updateMs, double totalMs) {}
+
+    public record RunTiming(long runId, long totalMs, int iterations,
+                            double avgIterMs, double avgAssignMs, double avgUpdateMs) {}
+
     public void insertIterMetrics(long runId, int iter, double sse,
                                   double assignMs, double updateMs, double totalMs) {
         String sql = """
@@ -13,6 +23,7 @@ public final class MetricsRepository {
             VALUES (?, ?, ?, ?, ?, ?)
             """;
 
+        DbWriteEvent ev = DbWriteEvent.start("iter_metrics", "INSERT");
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, runId);
@@ -21,18 +32,50 @@ public final class MetricsRepository {
             ps.setDouble(4, assignMs);
             ps.setDouble(5, updateMs);
             ps.setDouble(6, totalMs);
-            ps.executeUpdate();
+            ev.finish(ps.executeUpdate());
         } catch (SQLException e) {
             throw new RuntimeException("Failed to insert iter_metrics", e);
         }
     }
 
+    // Пачка строк одной транзакцией (IterMetricsWriter)
+    public void insertIterMetrics(List<IterRow> rows) {
+        if (rows.isEmpty()) return;
+        String sql = """
+            INSERT INTO iter_metrics(run_id, iter, sse, assign_ms, update_ms, total_ms)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+        DbWriteEvent ev = DbWriteEvent.start("iter_metrics", "BATCH_INSERT");
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            c.setAutoCommit(false);
+            for (IterRow r : rows) {
+                ps.setLong(1, r.runId());
+                ps.setInt(2, r.iter());
+                ps.setDouble(3, r.sse());
+                ps.setDouble(4, r.assignMs());
+                ps.setDouble(5, r.updateMs());
+                ps.setDouble(6, r.totalMs());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            c.commit();
+            ev.finish(rows.size());
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to insert iter_metrics batch", e);
+        }
+    }
+
     public void insertRunMetrics(long runId, long totalMs, int iterations, double finalSse,
                                  double avgIterMs, double avgAssignMs, double avgUpdateMs) {
         String sql = """
-            INSERT INTO run_metrics(run_id, total_ms, iterations, final_sse, avg_iter_ms, avg_assign_ms, avg_update_ms)
+            INSERT INTO run_metrics(run_id, total_ms, iters, final_sse, avg_iter_ms, avg_assign_ms, avg_update_ms)
             VALUES (?, ?, ?, ?, ?, ?, ?)
             """;
+        DbWriteEvent ev = DbWriteEvent.start("run_metrics", "INSERT");
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, runId);
@@ -42,16 +85,89 @@ public final class MetricsRepository {
             ps.setDouble(5, avgIterMs);
             ps.setDouble(6, avgAssignMs);
             ps.setDouble(7, avgUpdateMs);
-            ps.executeUpdate();
+            ev.finish(ps.executeUpdate());
         } catch (SQLException e) {
             throw new RuntimeException("Failed to insert run_metrics", e);
         }
     }
+
+    public RunTiming loadRunTiming(long runId) {
+        String sql = """
+            SELECT total_ms, iters, avg_iter_ms, avg_assign_ms, avg_update_ms
+            FROM run_metrics
+            WHERE run_id = ?
+            """;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, runId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new RunTiming(runId, rs.getLong("total_ms"), rs.getInt("iters"),
+                        rs.getDouble("avg_iter_ms"), rs.getDouble("avg_assign_ms"), rs.getDouble("avg_update_ms"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load run_metrics for run id=" + runId, e);
+        }
+    }
+
+    // Последний завершённый прогон с таким engine на том же датасете, K и scaling — база для сравнения
+    // (например, DEDUP против PLAIN); null — такого не было
+    public RunTiming findLastTiming(long datasetId, ScalingMode scaling, int k, String engine) {
+        String sql = """
+            SELECT m.run_id, m.total_ms, m.iters, m.avg_iter_ms, m.avg_assign_ms, m.avg_update_ms
+            FROM run_metrics m
+            JOIN runs r ON r.id = m.run_id
+            WHERE r.dataset_id = ? AND r.k = ? AND r.scaling = ? AND r.engine = ? AND r.status = 'FINISHED'
+            ORDER BY r.id DESC
+            LIMIT 1
+            """;
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, datasetId);
+            ps.setInt(2, k);
+            ps.setString(3, scaling.name());
+            ps.setString(4, engine);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new RunTiming(rs.getLong("run_id"), rs.getLong("total_ms"), rs.getInt("iters"),
+                        rs.getDouble("avg_iter_ms"), rs.getDouble("avg_assign_ms"), rs.getDouble("avg_update_ms"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find " + engine + " run for dataset id=" + datasetId, e);
+        }
+    }
+
+    // Дописывает к строке run_metrics сводку hot-path метрик сессии
+    public void saveRunSummary(long runId, SessionMetrics.Summary s) {
+        String sql = """
+            UPDATE run_metrics
+            SET points_per_sec = ?, dist_evals_per_sec = ?, avg_alloc_bytes = ?, worker_busy_pct = ?,
+                p50_iter_ms = ?, p95_iter_ms = ?, p99_iter_ms = ?
+            WHERE run_id = ?
+            """;
+        DbWriteEvent ev = DbWriteEvent.start("run_metrics", "UPDATE");
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setDouble(1, s.pointsPerSec());
+            ps.setDouble(2, s.distanceEvalsPerSec());
+            ps.setDouble(3, s.avgAllocBytes());
+            ps.setDouble(4, s.workerBusyPct());
+            ps.setDouble(5, s.p50IterMs());
+            ps.setDouble(6, s.p95IterMs());
+            ps.setDouble(7, s.p99IterMs());
+            ps.setLong(8, runId);
+            ev.finish(ps.executeUpdate());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update run_metrics summary", e);
+        }
+    }
+
     public void saveClusterMetrics(long runId, int[] size, double[] clusterSse, double[] avgDist, double[] maxDist) {
         String sql = """
         INSERT INTO cluster_metrics(run_id, cluster_id, size, cluster_sse, avg_dist, max_dist)
         VALUES (?, ?, ?, ?, ?, ?)
         """;
+        DbWriteEvent ev = DbWriteEvent.start("cluster_metrics", "BATCH_INSERT");
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
@@ -67,6 +183,7 @@ public final class MetricsRepository {
             }
             ps.executeBatch();
             c.commit();
+            ev.finish(size.length);
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to insert cluster_metrics", e);
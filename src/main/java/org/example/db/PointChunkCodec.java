@@ -0,0 +1,81 @@
+package org.example.db;
+
+import org.example.model.PointVector;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+// Чанк точек в POINT_CHUNKS.DATA: колоночно, dim подряд идущих массивов по cnt значений
+// (признак 0 всех точек чанка, затем признак 1, ...). Формат — POINT_CHUNKS.FORMAT.
+final class PointChunkCodec {
+    private PointChunkCodec() {}
+
+    static final int FORMAT_F64 = 1; // double big-endian
+    static final int FORMAT_I32 = 2; // int32 big-endian: все значения чанка целые (счётчики), вдвое меньше
+
+    record Encoded(int format, byte[] data) {}
+
+    // compactInts — FORMAT_I32, если весь чанк целочисленный, иначе FORMAT_F64
+    static Encoded encode(List<PointVector> points, int from, int to, int dim, boolean compactInts) {
+        int cnt = to - from;
+        double[][] cols = new double[dim][cnt];
+        boolean ints = compactInts;
+        for (int i = 0; i < cnt; i++) {
+            double[] x = points.get(from + i).x();
+            for (int f = 0; f < dim; f++) cols[f][i] = x[f];
+            if (ints) ints = VectorCodec.allInts(x, 0, dim);
+        }
+
+        if (ints) {
+            ByteBuffer bb = ByteBuffer.allocate(cnt * dim * 4);
+            IntBuffer ib = bb.asIntBuffer();
+            int[] col = new int[cnt];
+            for (int f = 0; f < dim; f++) {
+                for (int i = 0; i < cnt; i++) col[i] = (int) cols[f][i];
+                ib.put(col);
+            }
+            return new Encoded(FORMAT_I32, bb.array());
+        }
+
+        ByteBuffer bb = ByteBuffer.allocate(cnt * dim * 8);
+        DoubleBuffer db = bb.asDoubleBuffer();
+        for (int f = 0; f < dim; f++) db.put(cols[f]);
+        return new Encoded(FORMAT_F64, bb.array());
+    }
+
+    // Раскладывает чанк по строкам out[startIdx .. startIdx+cnt); лишние признаки
+    // отбрасываются, недостающие (targetDim > dim) остаются нулями
+    static void decodeInto(byte[] data, int format, int startIdx, int cnt, int dim,
+                           int targetDim, PointVector[] out) {
+        int width = switch (format) {
+            case FORMAT_F64 -> 8;
+            case FORMAT_I32 -> 4;
+            default -> throw new IllegalArgumentException("Unknown point chunk format: " + format);
+        };
+        if (data.length != cnt * dim * width) {
+            throw new IllegalArgumentException("Chunk size mismatch: " + data.length + " bytes for " + cnt + "x" + dim);
+        }
+
+        double[][] rows = new double[cnt][targetDim];
+        int m = Math.min(dim, targetDim);
+        if (format == FORMAT_F64) {
+            DoubleBuffer db = ByteBuffer.wrap(data).asDoubleBuffer();
+            double[] col = new double[cnt];
+            for (int f = 0; f < m; f++) {
+                db.get(col);
+                for (int i = 0; i < cnt; i++) rows[i][f] = col[i];
+            }
+        } else {
+            IntBuffer ib = ByteBuffer.wrap(data).asIntBuffer();
+            int[] col = new int[cnt];
+            for (int f = 0; f < m; f++) {
+                ib.get(col);
+                for (int i = 0; i < cnt; i++) rows[i][f] = col[i];
+            }
+        }
+
+        for (int i = 0; i < cnt; i++) out[startIdx + i] = new PointVector(startIdx + i, rows[i]);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.db;
+
+import org.example.metrics.DbWriteEvent;
+import org.example.core.Projection;
+import org.example.model.ReductionMode;
+import org.example.model.ScalingMode;
+
+import java.sql.*;
+
+public final class ProjectionRepository {
+
+    // null если проекция для датасета ещё не считалась
+    public Projection find(long datasetId, ScalingMode scaling, ReductionMode kind, int outDim) {
+        String sql = """
+                SELECT in_dim, out_dim, mean_vals, matrix
+                FROM projections
+                WHERE dataset_id = ? AND scaling = ? AND kind = ? AND out_dim = ?
+                """;
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, datasetId);
+            ps.setString(2, scaling.name());
+            ps.setString(3, kind.name());
+            ps.setInt(4, outDim);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                int d = rs.getInt("in_dim");
+                int r = rs.getInt("out_dim");
+                double[] mean = ArrayCodec.unpackDoubles(rs.getBytes("mean_vals"));
+                double[] flat = ArrayCodec.unpackDoubles(rs.getBytes("matrix"));
+                if (mean.length != d || flat.length != r * d) return null;
+
+                double[][] w = new double[r][d];
+                for (int i = 0; i < r; i++) System.arraycopy(flat, i * d, w[i], 0, d);
+                return new Projection(kind, mean, w);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load projection for datasetId=" + datasetId, e);
+        }
+    }
+
+    public void save(long datasetId, ScalingMode scaling, Projection p) {
+        String sql = """
+                MERGE INTO projections(dataset_id, scaling, kind, in_dim, out_dim, mean_vals, matrix)
+                KEY(dataset_id, scaling, kind, out_dim)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """;
+        DbWriteEvent ev = DbWriteEvent.start("projections", "MERGE");
+
+        int d = p.inputDim();
+        int r = p.outputDim();
+        double[] flat = new double[r * d];
+        for (int i = 0; i < r; i++) System.arraycopy(p.matrix()[i], 0, flat, i * d, d);
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, datasetId);
+            ps.setString(2, scaling.name());
+            ps.setString(3, p.kind().name());
+            ps.setInt(4, d);
+            ps.setInt(5, r);
+            ps.setBytes(6, ArrayCodec.packDoubles(p.mean()));
+            ps.setBytes(7, ArrayCodec.packDoubles(flat));
+            ev.finish(ps.executeUpdate());
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save projection for datasetId=" + datasetId, e);
+        }
+    }
+}
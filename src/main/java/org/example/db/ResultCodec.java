@@ -0,0 +1,124 @@
+package org.example.db;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// BLOB'ы таблицы RESULTS.
+//   ASSIGNMENTS: [byte version][int n][byte bits] + deflate(long[] слов с упакованными номерами кластеров),
+//                bits = ceil(log2 K) (минимум 1), точка i занимает биты [i*bits, (i+1)*bits).
+//   CENTROIDS:   [int k][int d] + k*d double, построчно.
+final class ResultCodec {
+    private ResultCodec() {}
+
+    private static final byte ASSIGNMENTS_V1 = 1;
+    private static final int HEADER = 1 + 4 + 1;
+
+    static int bitsFor(int k) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, k - 1)));
+    }
+
+    static byte[] packAssignments(int[] a, int k) {
+        int bits = bitsFor(k);
+        long mask = (1L << bits) - 1;
+        long[] words = new long[wordsFor(a.length, bits)];
+
+        for (int i = 0; i < a.length; i++) {
+            int v = a[i];
+            if (v < 0 || v >= k) throw new IllegalArgumentException("assignment[" + i + "]=" + v + " out of [0," + k + ")");
+            long bitPos = (long) i * bits;
+            int w = (int) (bitPos >>> 6);
+            int off = (int) (bitPos & 63);
+            words[w] |= (v & mask) << off;
+            if (off + bits > 64) words[w + 1] |= (v & mask) >>> (64 - off);
+        }
+
+        ByteBuffer raw = ByteBuffer.allocate(words.length * 8);
+        raw.asLongBuffer().put(words);
+
+        Deflater def = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER + raw.capacity() / 4 + 64);
+        try {
+            def.setInput(raw.array());
+            def.finish();
+            out.write(ASSIGNMENTS_V1);
+            out.writeBytes(ByteBuffer.allocate(4).putInt(a.length).array());
+            out.write(bits);
+            byte[] buf = new byte[64 * 1024];
+            while (!def.finished()) {
+                int len = def.deflate(buf);
+                out.write(buf, 0, len);
+            }
+        } finally {
+            def.end();
+        }
+        return out.toByteArray();
+    }
+
+    static int[] unpackAssignments(byte[] blob) {
+        ByteBuffer bb = ByteBuffer.wrap(blob);
+        byte version = bb.get();
+        if (version != ASSIGNMENTS_V1) throw new IllegalArgumentException("Unknown assignments format: " + version);
+        int n = bb.getInt();
+        int bits = bb.get();
+        long mask = (1L << bits) - 1;
+
+        byte[] raw = new byte[wordsFor(n, bits) * 8];
+        Inflater inf = new Inflater();
+        try {
+            inf.setInput(blob, HEADER, blob.length - HEADER);
+            int got = 0;
+            while (got < raw.length && !inf.finished()) {
+                int len = inf.inflate(raw, got, raw.length - got);
+                if (len == 0 && (inf.needsInput() || inf.needsDictionary())) break;
+                got += len;
+            }
+            if (got != raw.length) throw new IllegalArgumentException("Truncated assignments blob");
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted assignments blob", e);
+        } finally {
+            inf.end();
+        }
+
+        long[] words = new long[raw.length / 8];
+        ByteBuffer.wrap(raw).asLongBuffer().get(words);
+
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            long bitPos = (long) i * bits;
+            int w = (int) (bitPos >>> 6);
+            int off = (int) (bitPos & 63);
+            long v = words[w] >>> off;
+            if (off + bits > 64) v |= words[w + 1] << (64 - off);
+            out[i] = (int) (v & mask);
+        }
+        return out;
+    }
+
+    static byte[] packCentroids(double[][] c) {
+        int k = c.length;
+        int d = k == 0 ? 0 : c[0].length;
+        ByteBuffer bb = ByteBuffer.allocate(8 + k * d * 8);
+        bb.putInt(k).putInt(d);
+        var db = bb.asDoubleBuffer();
+        for (double[] row : c) db.put(row, 0, d);
+        return bb.array();
+    }
+
+    static double[][] unpackCentroids(byte[] blob) {
+        ByteBuffer bb = ByteBuffer.wrap(blob);
+        int k = bb.getInt();
+        int d = bb.getInt();
+        double[][] c = new double[k][d];
+        var db = bb.asDoubleBuffer();
+        for (double[] row : c) db.get(row);
+        return c;
+    }
+
+    private static int wordsFor(int n, int bits) {
+        return (int) (((long) n * bits + 63) >>> 6);
+    }
+}
@@ -1,60 +1,55 @@
 package org.example.db;
 
+import org.example.metrics.DbWriteEvent;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
+// Итог прогона — одна строка RESULTS: центроиды и разметка точек в компактных BLOB'ах (см. ResultCodec)
 public final class ResultRepository {
 
-    public void saveAssignments(long runId, int[] assignment) {
-        String sql = "INSERT INTO assignments(run_id, point_idx, cluster_id) VALUES (?, ?, ?)";
+    public record RunResult(long runId, double[][] centroids, int[] assignment) {}
+
+    public void saveResult(long runId, double[][] centroids, int[] assignment) {
+        String sql = """
+            MERGE INTO results(run_id, centroids, assignments)
+            KEY(run_id)
+            VALUES (?, ?, ?)
+            """;
+        DbWriteEvent ev = DbWriteEvent.start("results", "MERGE");
+
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
-            c.setAutoCommit(false);
-            for (int i = 0; i < assignment.length; i++) {
-                ps.setLong(1, runId);
-                ps.setInt(2, i);
-                ps.setInt(3, assignment[i]);
-                ps.addBatch();
-            }
-            ps.executeBatch();
-            c.commit();
+            ps.setLong(1, runId);
+            ps.setBytes(2, ResultCodec.packCentroids(centroids));
+            ps.setBytes(3, ResultCodec.packAssignments(assignment, centroids.length));
+            ps.executeUpdate();
+            ev.finish(assignment.length);
 
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to save assignments runId=" + runId, e);
+            throw new RuntimeException("Failed to save result runId=" + runId, e);
         }
     }
 
-    public void saveCentroids(long runId, double[][] c) {
-        String sql = """
-            INSERT INTO centroids(run_id, cluster_id, sports, games, music, movies, memes, likes, comments)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """;
-
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            conn.setAutoCommit(false);
-            for (int k = 0; k < c.length; k++) {
-                ps.setLong(1, runId);
-                ps.setInt(2, k);
+    // null если результата нет
+    public RunResult loadResult(long runId) {
+        String sql = "SELECT centroids, assignments FROM results WHERE run_id = ?";
 
-                ps.setDouble(3, c[k][0]);
-                ps.setDouble(4, c[k][1]);
-                ps.setDouble(5, c[k][2]);
-                ps.setDouble(6, c[k][3]);
-                ps.setDouble(7, c[k][4]);
-                ps.setDouble(8, c[k][5]);
-                ps.setDouble(9, c[k][6]);
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
 
-                ps.addBatch();
+            ps.setLong(1, runId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new RunResult(runId,
+                        ResultCodec.unpackCentroids(rs.getBytes("centroids")),
+                        ResultCodec.unpackAssignments(rs.getBytes("assignments")));
             }
-            ps.executeBatch();
-            conn.commit();
 
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to save centroids runId=" + runId, e);
+            throw new RuntimeException("Failed to load result runId=" + runId, e);
         }
     }
 }
@@ -1,28 +1,44 @@
 package org.example.db;
 
+import org.example.metrics.DbWriteEvent;
 import org.example.model.RunMode;
+import org.example.model.ScalingMode;
 
 import java.sql.*;
 
 public final class RunRepository {
 
     public long createRun(long datasetId, RunMode mode, int k, int threads, int maxIter, double eps) {
+        return createRun(datasetId, mode, null, k, threads, maxIter, eps);
+    }
+
+    // engine — запрошенный движок (PLAIN / DEDUP / CORESET / ..., имена BenchmarkCli.Engine; SCALING_* у
+    // ScalingExperiment), null — не указан; фактический после сборки сессии пишет updateEngine
+    public long createRun(long datasetId, RunMode mode, String engine, int k, int threads, int maxIter, double eps) {
+        return createRun(datasetId, mode, engine, null, k, threads, maxIter, eps);
+    }
+
+    public long createRun(long datasetId, RunMode mode, String engine, ScalingMode scaling,
+                          int k, int threads, int maxIter, double eps) {
         String sql = """
-            INSERT INTO runs(dataset_id, mode, k, threads, max_iter, eps)
-            VALUES (?, ?, ?, ?, ?, ?)
+            INSERT INTO runs(dataset_id, mode, engine, scaling, k, threads, max_iter, eps)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
             """;
+        DbWriteEvent ev = DbWriteEvent.start("runs", "INSERT");
 
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setLong(1, datasetId);
             ps.setString(2, mode.name());
-            ps.setInt(3, k);
-            ps.setInt(4, threads);
-            ps.setInt(5, maxIter);
-            ps.setDouble(6, eps);
+            ps.setString(3, engine);
+            ps.setString(4, scaling == null ? null : scaling.name());
+            ps.setInt(5, k);
+            ps.setInt(6, threads);
+            ps.setInt(7, maxIter);
+            ps.setDouble(8, eps);
 
-            ps.executeUpdate();
+            ev.finish(ps.executeUpdate());
 
             try (ResultSet keys = ps.getGeneratedKeys()) {
                 if (!keys.next()) throw new SQLException("No key for run");
@@ -34,24 +50,92 @@ public final class RunRepository {
         }
     }
 
+    // для Threads = auto: фактическое число потоков известно только после подбора
+    public void updateThreads(long runId, int threads) {
+        String sql = "UPDATE runs SET threads = ? WHERE id = ?";
+        DbWriteEvent ev = DbWriteEvent.start("runs", "UPDATE");
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setInt(1, threads);
+            ps.setLong(2, runId);
+            ev.finish(ps.executeUpdate());
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update threads for run id=" + runId, e);
+        }
+    }
+
+    // движок, который SessionFactory.prepare собрал на самом деле (при createRun известен только запрошенный)
+    public void updateEngine(long runId, String engine) {
+        String sql = "UPDATE runs SET engine = ? WHERE id = ?";
+        DbWriteEvent ev = DbWriteEvent.start("runs", "UPDATE");
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, engine);
+            ps.setLong(2, runId);
+            ev.finish(ps.executeUpdate());
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update engine for run id=" + runId, e);
+        }
+    }
+
     public void finishRun(long runId, String stopReason) {
+        finishRun(runId, "FINISHED", stopReason);
+    }
+
+    // status: FINISHED / FAILED; для FAILED в stop_reason — текст исключения (обрезается под колонку)
+    public void finishRun(long runId, String status, String stopReason) {
         String sql = """
             UPDATE runs
-            SET status = 'FINISHED',
+            SET status = ?,
                 stop_reason = ?,
                 finished_at = CURRENT_TIMESTAMP
             WHERE id = ?
             """;
+        DbWriteEvent ev = DbWriteEvent.start("runs", "UPDATE");
 
         try (Connection c = Database.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
-            ps.setString(1, stopReason);
-            ps.setLong(2, runId);
-            ps.executeUpdate();
+            ps.setString(1, status);
+            ps.setString(2, stopReason != null && stopReason.length() > 128 ? stopReason.substring(0, 128) : stopReason);
+            ps.setLong(3, runId);
+            ev.finish(ps.executeUpdate());
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to finish run id=" + runId, e);
         }
     }
+
+    // Последний завершённый прогон, от которого можно продолжить (INCREMENTAL):
+    // тот же датасет, k и scaling, сохранён результат (разметка в RESULTS всегда развёрнута
+    // на все точки датасета, так что движок прогона не важен). -1 — нет такого
+    public long findResumeRun(long datasetId, ScalingMode scaling, int k) {
+        String sql = """
+            SELECT r.id FROM runs r
+            JOIN results res ON res.run_id = r.id
+            WHERE r.dataset_id = ? AND r.k = ? AND r.scaling = ? AND r.status = 'FINISHED'
+            ORDER BY r.id DESC
+            LIMIT 1
+            """;
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, datasetId);
+            ps.setInt(2, k);
+            ps.setString(3, scaling.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find resumable run for dataset id=" + datasetId, e);
+        }
+    }
 }
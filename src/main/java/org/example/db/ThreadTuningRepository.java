@@ -0,0 +1,49 @@
+package org.example.db;
+
+import org.example.metrics.DbWriteEvent;
+
+import java.sql.*;
+
+// Результаты авто-подбора потоков: (машина, порядок размера набора) -> число потоков
+public final class ThreadTuningRepository {
+
+    // -1 если для этой машины и размера ещё не подбирали
+    public int findThreads(String machine, int sizeBucket) {
+        String sql = "SELECT threads FROM thread_tuning WHERE machine = ? AND size_bucket = ?";
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, machine);
+            ps.setInt(2, sizeBucket);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("threads") : -1;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load thread tuning for " + machine, e);
+        }
+    }
+
+    public void save(String machine, int sizeBucket, int threads, double assignMs) {
+        String sql = """
+                MERGE INTO thread_tuning(machine, size_bucket, threads, assign_ms, measured_at)
+                KEY(machine, size_bucket)
+                VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                """;
+        DbWriteEvent ev = DbWriteEvent.start("thread_tuning", "MERGE");
+
+        try (Connection c = Database.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, machine);
+            ps.setInt(2, sizeBucket);
+            ps.setInt(3, threads);
+            ps.setDouble(4, assignMs);
+            ev.finish(ps.executeUpdate());
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save thread tuning for " + machine, e);
+        }
+    }
+}
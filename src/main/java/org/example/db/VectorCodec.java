@@ -0,0 +1,65 @@
+package org.example.db;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// BLOB одного вектора: [int h][payload], big-endian.
+//   h >= 0 — h значений double (формат старого packVec через DataOutputStream, читается как есть);
+//   h <  0 — -h значений int32 (компактный вариант, когда все значения целые — счётчики).
+// Доступ к byte[] через VarHandle: без потоков, view-буферов и промежуточных массивов.
+final class VectorCodec {
+    private VectorCodec() {}
+
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    static byte[] encode(double[] x, boolean compactInts) {
+        if (compactInts && allInts(x, 0, x.length)) {
+            byte[] out = new byte[4 + x.length * 4];
+            INT.set(out, 0, -x.length);
+            for (int i = 0, p = 4; i < x.length; i++, p += 4) INT.set(out, p, (int) x[i]);
+            return out;
+        }
+        byte[] out = new byte[4 + x.length * 8];
+        INT.set(out, 0, x.length);
+        // doubleToRawLongBits — побитово как DataOutputStream.writeDouble (NaN не канонизируется)
+        for (int i = 0, p = 4; i < x.length; i++, p += 8) LONG.set(out, p, Double.doubleToRawLongBits(x[i]));
+        return out;
+    }
+
+    static double[] decode(byte[] blob, int targetDim) {
+        double[] x = new double[targetDim];
+        decodeInto(blob, x);
+        return x;
+    }
+
+    // dst заполняется первыми dst.length значениями; если в BLOB меньше — хвост обнуляется
+    static void decodeInto(byte[] blob, double[] dst) {
+        if (blob == null || blob.length < 4) {
+            Arrays.fill(dst, 0.0);
+            return;
+        }
+
+        int h = (int) INT.get(blob, 0);
+        int m;
+        if (h >= 0) {
+            m = Math.min(Math.min(h, (blob.length - 4) / 8), dst.length);
+            for (int i = 0, p = 4; i < m; i++, p += 8) dst[i] = Double.longBitsToDouble((long) LONG.get(blob, p));
+        } else {
+            m = Math.min(Math.min(-h, (blob.length - 4) / 4), dst.length);
+            for (int i = 0, p = 4; i < m; i++, p += 4) dst[i] = (int) INT.get(blob, p);
+        }
+        if (m < dst.length) Arrays.fill(dst, m, dst.length, 0.0);
+    }
+
+    // целое и помещается в int32 (−0.0 тоже: сохранится как 0)
+    static boolean allInts(double[] a, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double v = a[i];
+            if (v != Math.rint(v) || v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Запись в БД из репозиториев; длительность события = латентность (вкл. получение соединения и commit).
+@Name("org.example.DbWrite")
+@Label("DB Write")
+@Category({"ROSL", "Database"})
+@Description("Repository write: single statement or JDBC batch")
+@StackTrace(false)
+public final class DbWriteEvent extends Event {
+
+    @Label("Table")
+    public String table;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Rows")
+    public long rows;
+
+    // для MetricsRegistry (transient — не поле JFR-события)
+    private transient long startNanos;
+
+    public static DbWriteEvent start(String table, String operation) {
+        DbWriteEvent e = new DbWriteEvent();
+        e.table = table;
+        e.operation = operation;
+        e.startNanos = System.nanoTime();
+        e.begin();
+        return e;
+    }
+
+    public void finish(long rows) {
+        this.rows = rows;
+        commit();
+        MetricsRegistry.global().recordDbWrite(System.nanoTime() - startNanos, rows);
+    }
+}
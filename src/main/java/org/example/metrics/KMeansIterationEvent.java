@@ -0,0 +1,58 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Одна итерация KMeansSession.step(); длительность события = вся итерация.
+// Запись: java -XX:StartFlightRecording=filename=rosl.jfr ...
+@Name("org.example.KMeansIteration")
+@Label("K-Means Iteration")
+@Category({"ROSL", "K-Means"})
+@Description("One Lloyd iteration: assign, centroid update and SSE phases")
+@StackTrace(false)
+public final class KMeansIterationEvent extends Event {
+
+    @Label("Iteration")
+    public int iter;
+
+    @Label("Points")
+    public int n;
+
+    @Label("Clusters")
+    public int k;
+
+    @Label("Threads")
+    public int threads;
+
+    @Label("Weighted")
+    public boolean weighted;
+
+    @Label("Assign Phase")
+    @Timespan(Timespan.NANOSECONDS)
+    public long assignNanos;
+
+    @Label("Update Phase")
+    @Timespan(Timespan.NANOSECONDS)
+    public long updateNanos;
+
+    @Label("SSE Phase")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sseNanos;
+
+    @Label("Assignment Changes")
+    public int changes;
+
+    @Label("Distance Evaluations")
+    public long distanceEvals;
+
+    @Label("Centroid Shift")
+    public double shift;
+
+    @Label("SSE")
+    public double sse;
+}
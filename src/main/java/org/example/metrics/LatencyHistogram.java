@@ -0,0 +1,51 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Лог-гистограмма латентностей: бакет b = [2^(b-1), 2^b) микросекунд, бакет 0 = [0, 1) мкс.
+// Перцентили — по верхней границе бакета (точность ×2, зато без аллокаций и блокировок).
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 40; // до ~2^39 мкс ≈ 6 суток
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        if (nanos < 0) nanos = 0;
+        long us = nanos / 1_000;
+        int b = (us == 0) ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(us));
+        counts.incrementAndGet(b);
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() { return count.sum(); }
+
+    public double meanMs() {
+        long c = count.sum();
+        return c == 0 ? 0.0 : sumNanos.sum() / 1_000_000.0 / c;
+    }
+
+    public double maxMs() { return maxNanos.get() / 1_000_000.0; }
+
+    public double percentileMs(double p) {
+        long c = count.sum();
+        if (c == 0) return 0.0;
+        long rank = (long) Math.ceil(p * c);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                double upperUs = (b == 0) ? 1.0 : (double) (1L << b);
+                return Math.min(upperUs / 1_000.0, maxMs());
+            }
+        }
+        return maxMs();
+    }
+}
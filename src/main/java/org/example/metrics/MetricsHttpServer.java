@@ -0,0 +1,50 @@
+package org.example.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// GET http://127.0.0.1:<port>/metrics — MetricsRegistry в текстовом формате.
+// Включается явно: -Drosl.metrics.port=9464; без свойства (или 0) эндпоинт не поднимается. Слушаем только localhost.
+public final class MetricsHttpServer {
+    private MetricsHttpServer() {}
+
+    private static HttpServer server;
+
+    public static synchronized void startIfEnabled() {
+        if (server != null) return;
+
+        int port = Integer.getInteger("rosl.metrics.port", 0);
+        if (port <= 0) return;
+
+        try {
+            HttpServer s = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            s.createContext("/metrics", ex -> {
+                byte[] body = MetricsRegistry.global().getText().getBytes(StandardCharsets.UTF_8);
+                ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                ex.sendResponseHeaders(200, body.length);
+                try (OutputStream os = ex.getResponseBody()) {
+                    os.write(body);
+                }
+            });
+            s.setExecutor(null);
+            Thread t = new Thread(s::start, "metrics-http");
+            t.setDaemon(true);
+            t.start();
+            server = s;
+        } catch (Exception e) {
+            // порт занят (например, второй экземпляр) — без эндпоинта, но работаем
+            System.err.println("Metrics endpoint disabled (port " + port + "): " + e);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.metrics;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Процессные метрики горячего пути (все сессии и репозитории).
+// Доступны через JMX и в текстовом виде (MetricsHttpServer, /metrics).
+public final class MetricsRegistry implements MetricsRegistryMBean {
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(GLOBAL, new ObjectName("org.example:type=Metrics"));
+        } catch (Exception e) {
+            System.err.println("Metrics JMX registration failed: " + e);
+        }
+    }
+
+    public static MetricsRegistry global() { return GLOBAL; }
+
+    private final LatencyHistogram iterHist = new LatencyHistogram();
+    private final LatencyHistogram assignHist = new LatencyHistogram();
+    private final LatencyHistogram updateHist = new LatencyHistogram();
+    private final LatencyHistogram sseHist = new LatencyHistogram();
+    private final LatencyHistogram dbWriteHist = new LatencyHistogram();
+    private final LatencyHistogram poolWaitHist = new LatencyHistogram();
+
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder points = new LongAdder();
+    private final LongAdder distanceEvals = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder idleNanos = new LongAdder();
+    private final AtomicLong lastAllocBytes = new AtomicLong();
+    private final LongAdder dbRows = new LongAdder();
+
+    private final Map<String, LongAdder> workerBusy = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> workerIdle = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {}
+
+    void recordIteration(SessionMetrics.IterationStats s) {
+        iterations.increment();
+        wallNanos.add(s.wallNanos());
+        points.add(s.points());
+        distanceEvals.add(s.distanceEvals());
+        busyNanos.add(s.workerBusyNanos());
+        idleNanos.add(s.workerIdleNanos());
+        lastAllocBytes.set(s.allocBytes());
+
+        iterHist.recordNanos(s.wallNanos());
+        assignHist.recordNanos(s.assignNanos());
+        updateHist.recordNanos(s.updateNanos());
+        sseHist.recordNanos(s.sseNanos());
+    }
+
+    public void recordWorker(String worker, long busy, long idle) {
+        workerBusy.computeIfAbsent(worker, w -> new LongAdder()).add(busy);
+        workerIdle.computeIfAbsent(worker, w -> new LongAdder()).add(Math.max(0, idle));
+    }
+
+    // Текущее значение снимается при чтении (например, занятые соединения пула)
+    public void registerGauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public void recordPoolAcquire(long waitNanos) {
+        poolWaitHist.recordNanos(waitNanos);
+    }
+
+    void recordDbWrite(long nanos, long rows) {
+        dbWriteHist.recordNanos(nanos);
+        dbRows.add(rows);
+    }
+
+    // ---- MBean ----
+
+    @Override public long getIterations() { return iterations.sum(); }
+
+    @Override
+    public double getPointsPerSec() {
+        double sec = wallNanos.sum() / 1e9;
+        return sec > 0 ? points.sum() / sec : 0.0;
+    }
+
+    @Override
+    public double getDistanceEvalsPerSec() {
+        double sec = wallNanos.sum() / 1e9;
+        return sec > 0 ? distanceEvals.sum() / sec : 0.0;
+    }
+
+    @Override public long getLastIterationAllocBytes() { return lastAllocBytes.get(); }
+
+    @Override
+    public double getWorkerBusyPct() {
+        long b = busyNanos.sum();
+        long total = b + idleNanos.sum();
+        return total == 0 ? 0.0 : 100.0 * b / total;
+    }
+
+    @Override public double getIterP50Ms() { return iterHist.percentileMs(0.50); }
+    @Override public double getIterP99Ms() { return iterHist.percentileMs(0.99); }
+    @Override public double getAssignP99Ms() { return assignHist.percentileMs(0.99); }
+    @Override public long getDbWrites() { return dbWriteHist.count(); }
+    @Override public double getDbWriteP99Ms() { return dbWriteHist.percentileMs(0.99); }
+    @Override public long getDbPoolAcquires() { return poolWaitHist.count(); }
+    @Override public double getDbPoolWaitP99Ms() { return poolWaitHist.percentileMs(0.99); }
+    @Override public long getDbPoolActive() { return gauge("rosl_db_pool_active"); }
+
+    private long gauge(String name) {
+        LongSupplier g = gauges.get(name);
+        return g == null ? 0 : g.getAsLong();
+    }
+
+    // Текстовый формат Prometheus
+    @Override
+    public String getText() {
+        StringBuilder sb = new StringBuilder(4096);
+        line(sb, "rosl_kmeans_iterations_total", iterations.sum());
+        line(sb, "rosl_kmeans_points_total", points.sum());
+        line(sb, "rosl_kmeans_distance_evals_total", distanceEvals.sum());
+        line(sb, "rosl_kmeans_points_per_second", getPointsPerSec());
+        line(sb, "rosl_kmeans_distance_evals_per_second", getDistanceEvalsPerSec());
+        line(sb, "rosl_kmeans_last_iteration_alloc_bytes", lastAllocBytes.get());
+        line(sb, "rosl_kmeans_worker_busy_percent", getWorkerBusyPct());
+
+        for (var e : new TreeMap<>(workerBusy).entrySet()) {
+            line(sb, "rosl_kmeans_worker_busy_seconds_total{worker=\"" + e.getKey() + "\"}", e.getValue().sum() / 1e9);
+        }
+        for (var e : new TreeMap<>(workerIdle).entrySet()) {
+            line(sb, "rosl_kmeans_worker_idle_seconds_total{worker=\"" + e.getKey() + "\"}", e.getValue().sum() / 1e9);
+        }
+
+        histogram(sb, "rosl_kmeans_iteration_ms", iterHist);
+        histogram(sb, "rosl_kmeans_assign_ms", assignHist);
+        histogram(sb, "rosl_kmeans_update_ms", updateHist);
+        histogram(sb, "rosl_kmeans_sse_ms", sseHist);
+        histogram(sb, "rosl_db_write_ms", dbWriteHist);
+        line(sb, "rosl_db_write_rows_total", dbRows.sum());
+        histogram(sb, "rosl_db_pool_wait_ms", poolWaitHist);
+        for (var e : new TreeMap<>(gauges).entrySet()) {
+            line(sb, e.getKey(), e.getValue().getAsLong());
+        }
+        return sb.toString();
+    }
+
+    private static void histogram(StringBuilder sb, String name, LatencyHistogram h) {
+        line(sb, name + "{quantile=\"0.5\"}", h.percentileMs(0.50));
+        line(sb, name + "{quantile=\"0.95\"}", h.percentileMs(0.95));
+        line(sb, name + "{quantile=\"0.99\"}", h.percentileMs(0.99));
+        line(sb, name + "_max", h.maxMs());
+        line(sb, name + "_mean", h.meanMs());
+        line(sb, name + "_count", h.count());
+    }
+
+    private static void line(StringBuilder sb, String name, double v) {
+        sb.append(name).append(' ').append(String.format(Locale.ROOT, "%.6f", v)).append('\n');
+    }
+
+    private static void line(StringBuilder sb, String name, long v) {
+        sb.append(name).append(' ').append(v).append('\n');
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.metrics;
+
+// JMX-вид MetricsRegistry (org.example:type=Metrics), например в jconsole / VisualVM
+public interface MetricsRegistryMBean {
+    long getIterations();
+    double getPointsPerSec();
+    double getDistanceEvalsPerSec();
+    long getLastIterationAllocBytes();
+    double getWorkerBusyPct();
+    double getIterP50Ms();
+    double getIterP99Ms();
+    double getAssignP99Ms();
+    long getDbWrites();
+    double getDbWriteP99Ms();
+    long getDbPoolAcquires();
+    double getDbPoolWaitP99Ms();
+    long getDbPoolActive();
+    String getText();
+}
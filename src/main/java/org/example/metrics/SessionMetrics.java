@@ -0,0 +1,68 @@
+package org.example.metrics;
+
+// Метрики одной KMeansSession: копятся по итерациям, в конце прогона — сводка для run_metrics.
+// Каждая итерация дополнительно уходит в глобальный MetricsRegistry (JMX / HTTP).
+public final class SessionMetrics {
+
+    public record IterationStats(
+            int iter,
+            long wallNanos,
+            long assignNanos,
+            long updateNanos,
+            long sseNanos,
+            long points,
+            long distanceEvals,
+            long allocBytes,
+            long workerBusyNanos,
+            long workerIdleNanos
+    ) {}
+
+    public record Summary(
+            long iterations,
+            double pointsPerSec,
+            double distanceEvalsPerSec,
+            double avgAllocBytes,
+            double workerBusyPct,
+            double p50IterMs,
+            double p95IterMs,
+            double p99IterMs
+    ) {}
+
+    private final LatencyHistogram iterHist = new LatencyHistogram();
+    private long iterations;
+    private long wallNanos;
+    private long points;
+    private long distanceEvals;
+    private long allocBytes;
+    private long busyNanos;
+    private long idleNanos;
+
+    // вызывается из потока, выполняющего step()
+    public synchronized void record(IterationStats s) {
+        iterations++;
+        wallNanos += s.wallNanos();
+        points += s.points();
+        distanceEvals += s.distanceEvals();
+        allocBytes += Math.max(0, s.allocBytes());
+        busyNanos += s.workerBusyNanos();
+        idleNanos += s.workerIdleNanos();
+        iterHist.recordNanos(s.wallNanos());
+
+        MetricsRegistry.global().recordIteration(s);
+    }
+
+    public synchronized Summary summary() {
+        double sec = wallNanos / 1e9;
+        long workerTotal = busyNanos + idleNanos;
+        return new Summary(
+                iterations,
+                sec > 0 ? points / sec : 0.0,
+                sec > 0 ? distanceEvals / sec : 0.0,
+                iterations == 0 ? 0.0 : (double) allocBytes / iterations,
+                workerTotal == 0 ? 0.0 : 100.0 * busyNanos / workerTotal,
+                iterHist.percentileMs(0.50),
+                iterHist.percentileMs(0.95),
+                iterHist.percentileMs(0.99)
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.model;
+
+public enum ScalingMode {
+    NONE,
+    ZSCORE,
+    MINMAX,
+    LOG1P
+}
@@ -0,0 +1,35 @@
+package org.example.model;
+
+// Именованные наборы параметров генератора для нагрузочных прогонов.
+// d и clusters — значения по умолчанию (в UI / BenchmarkCli их можно переопределить, кроме d у SOCIAL).
+//   imbalance — показатель Zipf для размеров кластеров (0 = поровну)
+//   outliers  — доля точек, равномерно разбросанных по всему объёму данных
+//   overlap   — 0 = центры не ближе 8 sigma, ближе к 1 = кластеры сливаются (для SOCIAL не применяется)
+public enum WorkloadPreset {
+    SOCIAL(15, 4, 0.0, 0.0, 0.0),          // 5 тем * likes/comments/posts, признаки Feature
+    BLOBS(8, 8, 0.0, 0.0, 0.0),
+    IMBALANCED(8, 8, 1.5, 0.0, 0.0),
+    OUTLIERS(8, 8, 0.0, 0.05, 0.0),
+    OVERLAPPING(8, 8, 0.0, 0.0, 0.75),
+    MANY_CLUSTERS(16, 64, 0.5, 0.0, 0.25),
+    HIGH_DIM(128, 16, 0.0, 0.01, 0.25);
+
+    public final int d;
+    public final int clusters;
+    public final double imbalance;
+    public final double outliers;
+    public final double overlap;
+
+    WorkloadPreset(int d, int clusters, double imbalance, double outliers, double overlap) {
+        this.d = d;
+        this.clusters = clusters;
+        this.imbalance = imbalance;
+        this.outliers = outliers;
+        this.overlap = overlap;
+    }
+
+    // размерность задана структурой признаков (Feature)
+    public boolean fixedDim() {
+        return this == SOCIAL;
+    }
+}
@@ -5,6 +5,7 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
+import org.example.core.Projection;
 import org.example.model.Feature;
 import org.example.model.PointVector;
 
@@ -21,8 +22,12 @@ public final class PlotCanvas extends StackPane {
     private int[] assignment = null;
     private double[][] centroids = null;
 
-    private Feature xFeat = null;
-    private Feature yFeat = null;
+    // индексы признаков по осям; -1 => не выбраны
+    private int xDim = -1;
+    private int yDim = -1;
+
+    // != null => рисуем в осях первых двух компонент проекции (PC1/PC2) вместо xDim/yDim
+    private Projection axes = null;
 
     // sampling
     private int sampleLimit = 0;          // 0 => draw all
@@ -62,16 +67,28 @@ public final class PlotCanvas extends StackPane {
     public int getDrawCount() { return drawIdx.length; }
     public int getTotalCount() { return allPoints.size(); }
 
-    public void setData(List<PointVector> points, Feature x, Feature y) {
+    // Имя признака dim: для 15-мерных датасетов — Feature.column, иначе f<dim>
+    public static String axisName(int dim, int d) {
+        if (d == Feature.count() && dim >= 0 && dim < d) return Feature.values()[dim].column;
+        return "f" + dim;
+    }
+
+    public void setData(List<PointVector> points, Integer x, Integer y) {
         this.allPoints = (points == null) ? List.of() : points;
-        this.xFeat = x;
-        this.yFeat = y;
+        this.xDim = (x == null) ? -1 : x;
+        this.yDim = (y == null) ? -1 : y;
 
         recomputeScale();
         recomputeDrawIdx();
         redraw();
     }
 
+    public void setProjection(Projection p) {
+        this.axes = (p != null && p.outputDim() >= 2) ? p : null;
+        recomputeScale();
+        redraw();
+    }
+
     public void setClustering(int[] assignment, double[][] centroids) {
         this.assignment = assignment;
         this.centroids = centroids;
@@ -114,23 +131,20 @@ public final class PlotCanvas extends StackPane {
     }
 
     private void recomputeScale() {
-        if (allPoints.isEmpty() || xFeat == null || yFeat == null) {
+        if (allPoints.isEmpty() || xDim < 0 || yDim < 0) {
             hasScale = false;
             return;
         }
 
-        int xi = xFeat.ordinal();
-        int yi = yFeat.ordinal();
-
         double loX = Double.POSITIVE_INFINITY, hiX = Double.NEGATIVE_INFINITY;
         double loY = Double.POSITIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
 
         for (PointVector p : allPoints) {
             double[] v = p.x();
-            if (xi >= v.length || yi >= v.length) continue;
+            if (!hasCoords(v)) continue;
 
-            double x = v[xi];
-            double y = v[yi];
+            double x = coord(v, 0);
+            double y = coord(v, 1);
 
             if (x < loX) loX = x;
             if (x > hiX) hiX = x;
@@ -161,7 +175,7 @@ public final class PlotCanvas extends StackPane {
         gc.setFill(Color.WHITE);
         gc.fillRect(0, 0, w, h);
 
-        if (allPoints.isEmpty() || xFeat == null || yFeat == null || !hasScale) {
+        if (allPoints.isEmpty() || xDim < 0 || yDim < 0 || !hasScale) {
             gc.setFill(Color.GRAY);
             gc.setFont(Font.font(14));
             gc.fillText("Plot area", w * 0.5 - 30, h * 0.5);
@@ -176,20 +190,18 @@ public final class PlotCanvas extends StackPane {
 
         gc.setFill(Color.GRAY);
         gc.setFont(Font.font(12));
-        gc.fillText("X: " + xFeat.column, left + 5, bottom - 5);
-        gc.fillText("Y: " + yFeat.column, left + 5, top + 12);
-
-        int xi = xFeat.ordinal();
-        int yi = yFeat.ordinal();
+        int d = allPoints.get(0).x().length;
+        gc.fillText("X: " + (axes != null ? "PC1" : axisName(xDim, d)), left + 5, bottom - 5);
+        gc.fillText("Y: " + (axes != null ? "PC2" : axisName(yDim, d)), left + 5, top + 12);
 
         for (int t = 0; t < drawIdx.length; t++) {
             int i = drawIdx[t];
             PointVector p = allPoints.get(i);
             double[] v = p.x();
-            if (xi >= v.length || yi >= v.length) continue;
+            if (!hasCoords(v)) continue;
 
-            double px = map(v[xi], minX, maxX, left, right);
-            double py = map(v[yi], minY, maxY, bottom, top);
+            double px = map(coord(v, 0), minX, maxX, left, right);
+            double py = map(coord(v, 1), minY, maxY, bottom, top);
 
             int cl = -1;
             if (assignment != null && i < assignment.length) cl = assignment[i];
@@ -202,10 +214,10 @@ public final class PlotCanvas extends StackPane {
             gc.setLineWidth(2.0);
             for (int k = 0; k < centroids.length; k++) {
                 double[] c = centroids[k];
-                if (xi >= c.length || yi >= c.length) continue;
+                if (!hasCoords(c)) continue;
 
-                double cx = map(c[xi], minX, maxX, left, right);
-                double cy = map(c[yi], minY, maxY, bottom, top);
+                double cx = map(coord(c, 0), minX, maxX, left, right);
+                double cy = map(coord(c, 1), minY, maxY, bottom, top);
 
                 gc.setFill(colorForCluster(k));
                 gc.fillOval(cx - 6, cy - 6, 12, 12);
@@ -216,6 +228,22 @@ public final class PlotCanvas extends StackPane {
         }
     }
 
+    private boolean hasCoords(double[] v) {
+        if (axes != null) return v.length == axes.inputDim();
+        return xDim < v.length && yDim < v.length;
+    }
+
+    // axis: 0 -> X, 1 -> Y
+    private double coord(double[] v, int axis) {
+        if (axes == null) return v[axis == 0 ? xDim : yDim];
+
+        double[] w = axes.matrix()[axis];
+        double[] mean = axes.mean();
+        double s = 0.0;
+        for (int j = 0; j < w.length; j++) s += w[j] * (v[j] - mean[j]);
+        return s;
+    }
+
     private static double map(double v, double a, double b, double lo, double hi) {
         double t = (v - a) / (b - a);
         if (t < 0) t = 0;
@@ -4,6 +4,9 @@ import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Modality;
@@ -14,6 +17,8 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public final class ResultsWindow {
@@ -64,6 +69,117 @@ public final class ResultsWindow {
         public double getMaxDist() { return maxDist.get(); }
     }
 
+    // Строка отчёта масштабируемости (kind = STRONG / WEAK)
+    public record ScalingRow(
+            String kind,
+            int threads,
+            int n,
+            long runId,
+            int iterations,
+            double avgIterMs,
+            double speedup,
+            double efficiency
+    ) {}
+
+    public static void showScaling(Stage owner, long datasetId, int k, List<ScalingRow> rows) {
+        Stage st = new Stage();
+        st.initOwner(owner);
+        st.initModality(Modality.WINDOW_MODAL);
+        st.setTitle("ROSL — Scaling report (dataset #" + datasetId + ", K=" + k + ")");
+
+        // ---- table
+        TableView<ScalingRow> table = new TableView<>();
+        table.setItems(FXCollections.observableArrayList(rows));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+
+        TableColumn<ScalingRow, String> cKind = new TableColumn<>("kind");
+        cKind.setCellValueFactory(v -> new SimpleStringProperty(v.getValue().kind()));
+
+        TableColumn<ScalingRow, Number> cThreads = new TableColumn<>("threads");
+        cThreads.setCellValueFactory(v -> new SimpleIntegerProperty(v.getValue().threads()));
+
+        TableColumn<ScalingRow, Number> cN = new TableColumn<>("n");
+        cN.setCellValueFactory(v -> new SimpleIntegerProperty(v.getValue().n()));
+
+        TableColumn<ScalingRow, Number> cRun = new TableColumn<>("run");
+        cRun.setCellValueFactory(v -> new SimpleLongProperty(v.getValue().runId()));
+
+        TableColumn<ScalingRow, Number> cIters = new TableColumn<>("iters");
+        cIters.setCellValueFactory(v -> new SimpleIntegerProperty(v.getValue().iterations()));
+
+        TableColumn<ScalingRow, String> cIter = new TableColumn<>("avg iter ms");
+        cIter.setCellValueFactory(v -> new SimpleStringProperty(DF2.format(v.getValue().avgIterMs())));
+
+        TableColumn<ScalingRow, String> cSpeedup = new TableColumn<>("speedup");
+        cSpeedup.setCellValueFactory(v -> new SimpleStringProperty(DF2.format(v.getValue().speedup())));
+
+        TableColumn<ScalingRow, String> cEff = new TableColumn<>("efficiency %");
+        cEff.setCellValueFactory(v -> new SimpleStringProperty(DF1.format(100.0 * v.getValue().efficiency())));
+
+        table.getColumns().addAll(List.of(cKind, cThreads, cN, cRun, cIters, cIter, cSpeedup, cEff));
+
+        TitledPane tablePane = new TitledPane("Runs", table);
+        tablePane.setCollapsible(false);
+
+        // ---- chart: speedup vs threads (+ идеальная линия)
+        NumberAxis xAxis = new NumberAxis();
+        NumberAxis yAxis = new NumberAxis();
+        xAxis.setLabel("threads");
+        yAxis.setLabel("speedup");
+        LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+        chart.setAnimated(false);
+        chart.setMinHeight(240);
+
+        XYChart.Series<Number, Number> ideal = new XYChart.Series<>();
+        ideal.setName("ideal");
+        XYChart.Series<Number, Number> strong = new XYChart.Series<>();
+        strong.setName("strong");
+        XYChart.Series<Number, Number> weak = new XYChart.Series<>();
+        weak.setName("weak (scaled)");
+
+        for (ScalingRow r : rows) {
+            var point = new XYChart.Data<Number, Number>(r.threads(), r.speedup());
+            if ("WEAK".equals(r.kind())) {
+                weak.getData().add(point);
+            } else {
+                strong.getData().add(point);
+                ideal.getData().add(new XYChart.Data<>(r.threads(), r.threads()));
+            }
+        }
+        chart.getData().add(ideal);
+        chart.getData().add(strong);
+        chart.getData().add(weak);
+
+        TitledPane chartPane = new TitledPane("Speedup", chart);
+        chartPane.setCollapsible(false);
+
+        // ---- buttons
+        Button exportBtn = new Button("Export CSV");
+        Button closeBtn = new Button("Close");
+
+        exportBtn.setOnAction(e -> {
+            try {
+                Path dir = exportDir();
+                Files.createDirectories(dir);
+                Path out = exportScalingCsv(dir, datasetId, k, rows);
+                info("Export done", "Saved:\n" + out.getFileName() + "\n\nFolder:\n" + dir);
+            } catch (Exception ex) {
+                error("Export failed", ex.getMessage() == null ? ex.toString() : ex.getMessage());
+            }
+        });
+        closeBtn.setOnAction(e -> st.close());
+
+        HBox buttons = new HBox(10, exportBtn, closeBtn);
+        buttons.setPadding(new Insets(10, 0, 0, 0));
+
+        VBox root = new VBox(10, chartPane, tablePane, buttons);
+        VBox.setVgrow(chartPane, Priority.ALWAYS);
+        root.setPadding(new Insets(12));
+
+        st.setScene(new Scene(root, 760, 640));
+        st.show();
+    }
+
     public static void show(Stage owner, RunSummary s, List<ClusterRow> rows) {
         Stage st = new Stage();
         st.initOwner(owner);
@@ -241,6 +357,33 @@ public final class ResultsWindow {
         return new ExportPaths(runFile, clusterFile);
     }
 
+    private static Path exportScalingCsv(Path dir, long datasetId, int k, List<ScalingRow> rows) throws IOException {
+        String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path file = dir.resolve("scaling_ds" + datasetId + "_k" + k + "_" + ts + ".csv");
+
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            w.write(String.join(",", "kind","threads","n","run_id","iterations","avg_iter_ms","speedup","efficiency"));
+            w.newLine();
+
+            for (ScalingRow r : rows) {
+                w.write(String.join(",",
+                        csv(r.kind()),
+                        csv(r.threads()),
+                        csv(r.n()),
+                        csv(r.runId()),
+                        csv(r.iterations()),
+                        csv(DF6.format(r.avgIterMs())),
+                        csv(DF6.format(r.speedup())),
+                        csv(DF6.format(r.efficiency()))
+                ));
+                w.newLine();
+            }
+        }
+        return file;
+    }
+
     private static String csv(Object v) {
         String s = String.valueOf(v);
         boolean needQuotes = s.contains(",") || s.contains("\"") || s.contains("\n") || s.contains("\r");
@@ -0,0 +1,98 @@
+-- Версия 2: coreset/проекции/статистики признаков, колоночное хранение точек, подбор потоков,
+-- хэш содержимого и фоновое удаление датасетов, движок и scaling прогона, hot-path метрики.
+-- IF NOT EXISTS везде: базы, созданные до SCHEMA_VERSION полным schema.sql, уже могут это содержать.
+
+CREATE TABLE IF NOT EXISTS CORESETS (
+                                        ID IDENTITY PRIMARY KEY,
+                                        DATASET_ID BIGINT NOT NULL,
+                                        SCALING VARCHAR(16) NOT NULL DEFAULT 'NONE',
+                                        TARGET_SIZE INT NOT NULL,
+                                        SEED BIGINT NOT NULL,
+                                        IDX BLOB NOT NULL,
+                                        WEIGHTS BLOB NOT NULL,
+                                        CREATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                        CONSTRAINT UQ_CORESETS UNIQUE (DATASET_ID, SCALING, TARGET_SIZE, SEED),
+                                        CONSTRAINT FK_CORESETS_DATASETS
+                                        FOREIGN KEY (DATASET_ID) REFERENCES DATASETS(ID) ON DELETE CASCADE
+    );
+
+CREATE TABLE IF NOT EXISTS FEATURE_STATS (
+                                             DATASET_ID BIGINT PRIMARY KEY,
+                                             CNT BIGINT NOT NULL,
+                                             MIN_VALS BLOB NOT NULL,
+                                             MAX_VALS BLOB NOT NULL,
+                                             MEAN_VALS BLOB NOT NULL,
+                                             STD_VALS BLOB NOT NULL,
+                                             CONSTRAINT FK_FEATURE_STATS_DATASETS
+                                             FOREIGN KEY (DATASET_ID) REFERENCES DATASETS(ID) ON DELETE CASCADE
+    );
+
+CREATE TABLE IF NOT EXISTS PROJECTIONS (
+                                           ID IDENTITY PRIMARY KEY,
+                                           DATASET_ID BIGINT NOT NULL,
+                                           SCALING VARCHAR(16) NOT NULL,
+                                           KIND VARCHAR(16) NOT NULL,
+                                           IN_DIM INT NOT NULL,
+                                           OUT_DIM INT NOT NULL,
+                                           MEAN_VALS BLOB NOT NULL,
+                                           MATRIX BLOB NOT NULL,
+                                           CREATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                           CONSTRAINT UQ_PROJECTIONS UNIQUE (DATASET_ID, SCALING, KIND, OUT_DIM),
+                                           CONSTRAINT FK_PROJECTIONS_DATASETS
+                                           FOREIGN KEY (DATASET_ID) REFERENCES DATASETS(ID) ON DELETE CASCADE
+    );
+
+-- колоночное хранение точек (DATASETS.STORAGE = 2): до 65536 точек на строку,
+-- DATA — по одному массиву на признак (см. PointChunkCodec), FORMAT — версия кодека
+CREATE TABLE IF NOT EXISTS POINT_CHUNKS (
+                                            DATASET_ID BIGINT NOT NULL,
+                                            CHUNK_NO INT NOT NULL,
+                                            START_IDX INT NOT NULL,
+                                            CNT INT NOT NULL,
+                                            DIM INT NOT NULL,
+                                            FORMAT SMALLINT NOT NULL,
+                                            DATA BLOB NOT NULL,
+                                            PRIMARY KEY (DATASET_ID, CHUNK_NO),
+                                            CONSTRAINT FK_POINT_CHUNKS_DATASETS
+                                            FOREIGN KEY (DATASET_ID) REFERENCES DATASETS(ID) ON DELETE CASCADE
+    );
+
+-- авто-подбор Threads: лучший вариант на машине для порядка размера набора (log2 n)
+CREATE TABLE IF NOT EXISTS THREAD_TUNING (
+                                             MACHINE VARCHAR(255) NOT NULL,
+                                             SIZE_BUCKET INT NOT NULL,
+                                             THREADS INT NOT NULL,
+                                             ASSIGN_MS DOUBLE,
+                                             MEASURED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                             PRIMARY KEY (MACHINE, SIZE_BUCKET)
+    );
+
+-- 1 = строка POINTS на точку (старые датасеты), 2 = POINT_CHUNKS
+ALTER TABLE DATASETS ADD COLUMN IF NOT EXISTS STORAGE SMALLINT DEFAULT 1 NOT NULL;
+
+-- sha-256 параметров генератора ("gen:...") или содержимого импортированного файла ("file:...");
+-- одинаковый хэш => датасет переиспользуется, а не создаётся заново
+ALTER TABLE DATASETS ADD COLUMN IF NOT EXISTS CONTENT_HASH VARCHAR(80);
+
+-- FALSE — DatasetWriter ещё пишет (или запись оборвалась): датасет не виден в списке и поиске по хэшу
+ALTER TABLE DATASETS ADD COLUMN IF NOT EXISTS READY BOOLEAN DEFAULT TRUE NOT NULL;
+
+-- не NULL => датасет удалён и скрыт, строки дочищает DatasetPurger
+ALTER TABLE DATASETS ADD COLUMN IF NOT EXISTS DELETED_AT TIMESTAMP;
+
+ALTER TABLE RUNS ADD COLUMN IF NOT EXISTS ENGINE VARCHAR(32);
+-- в каком пространстве считались центроиды: продолжение прогона (INCREMENTAL) только при том же scaling
+ALTER TABLE RUNS ADD COLUMN IF NOT EXISTS SCALING VARCHAR(16);
+
+-- сводка hot-path метрик сессии (SessionMetrics.Summary)
+ALTER TABLE RUN_METRICS ADD COLUMN IF NOT EXISTS POINTS_PER_SEC DOUBLE;
+ALTER TABLE RUN_METRICS ADD COLUMN IF NOT EXISTS DIST_EVALS_PER_SEC DOUBLE;
+ALTER TABLE RUN_METRICS ADD COLUMN IF NOT EXISTS AVG_ALLOC_BYTES DOUBLE;
+ALTER TABLE RUN_METRICS ADD COLUMN IF NOT EXISTS WORKER_BUSY_PCT DOUBLE;
+ALTER TABLE RUN_METRICS ADD COLUMN IF NOT EXISTS P50_ITER_MS DOUBLE;
+ALTER TABLE RUN_METRICS ADD COLUMN IF NOT EXISTS P95_ITER_MS DOUBLE;
+ALTER TABLE RUN_METRICS ADD COLUMN IF NOT EXISTS P99_ITER_MS DOUBLE;
+
+-- диапазонное чтение старого формата по idx (параллельная загрузка)
+CREATE INDEX IF NOT EXISTS IDX_POINTS_DATASET_IDX ON POINTS(DATASET_ID, IDX);
+CREATE INDEX IF NOT EXISTS IDX_DATASETS_CONTENT_HASH ON DATASETS(CONTENT_HASH);
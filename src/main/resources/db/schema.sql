@@ -1,3 +1,4 @@
+-- Версия 1 схемы (базовая, см. Database.MIGRATIONS): выполняется один раз; изменения — в db/migrations/
 CREATE TABLE IF NOT EXISTS DATASETS (
                                         ID IDENTITY PRIMARY KEY,
                                         NAME VARCHAR(255) NOT NULL,
@@ -88,4 +89,4 @@ ALTER TABLE DATASETS ADD COLUMN IF NOT EXISTS CREATED_AT TIMESTAMP DEFAULT CURRE
 
 ALTER TABLE POINTS ADD COLUMN IF NOT EXISTS VEC BLOB;
 
-CREATE INDEX IF NOT EXISTS IDX_POINTS_DATASET ON POINTS(DATASET_ID);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS IDX_POINTS_DATASET ON POINTS(DATASET_ID);